@@ -0,0 +1,62 @@
+package study.data_jpa.repository;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 큰 IN 목록을 고정 크기 묶음으로 나눠 실행
+ * 묶음 크기는 2의 거듭제곱이고, 모자란 묶음은 마지막 값을 반복해서 다음 2의 거듭제곱 크기까지 채운다.
+ * 그래서 IN 목록 길이가 1, 2, 4, ..., chunkSize 중 하나로만 나오고
+ * Hibernate 쿼리 플랜 캐시와 DB statement 캐시에 쌓이는 SQL 모양이 log2(chunkSize) + 1개로 줄어든다.
+ * (값을 반복해도 IN 조건이라 결과는 같다)
+ *
+ * 목록이 아무리 커도 쿼리 하나의 파라미터 수는 chunkSize를 넘지 않는다. (Oracle은 IN 목록 1000개, H2는 쿼리당 파라미터 100000개가 한계)
+ * 결과는 Stream으로 돌려주고, 묶음 쿼리는 Stream을 소비하는 시점에 순서대로 하나씩 실행된다.
+ */
+public abstract class InQueries {
+
+    /**
+     * values를 중복 제거 후 chunkSize개씩 나눠 query를 실행하고 결과를 이어 붙인다
+     * values가 비어 있으면 쿼리를 실행하지 않는다. (빈 IN 목록은 DB에 따라 문법 오류)
+     */
+    public static <T, R> Stream<R> stream(Collection<? extends T> values, int chunkSize,
+                                          Function<List<T>, ? extends Collection<R>> query) {
+        return InQueries.<T>chunks(values, chunkSize).stream()
+                .flatMap(chunk -> query.apply(chunk).stream());
+    }
+
+    public static <T> List<List<T>> chunks(Collection<? extends T> values, int chunkSize) {
+        if (chunkSize < 1 || Integer.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException("chunkSize는 2의 거듭제곱이어야 합니다: " + chunkSize);
+        }
+
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        List<List<T>> chunks = new ArrayList<>((distinct.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            chunks.add(pad(distinct.subList(from, Math.min(from + chunkSize, distinct.size()))));
+        }
+        return chunks;
+    }
+
+    /**
+     * chunk를 마지막 값으로 채워 다음 2의 거듭제곱 크기로 만든다
+     */
+    public static <T> List<T> pad(List<T> chunk) {
+        int size = paddedSize(chunk.size());
+        List<T> padded = new ArrayList<>(size);
+        padded.addAll(chunk);
+        T last = chunk.get(chunk.size() - 1);
+        while (padded.size() < size) {
+            padded.add(last);
+        }
+        return padded;
+    }
+
+    static int paddedSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("빈 IN 목록은 채울 수 없습니다");
+        }
+        return size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+}
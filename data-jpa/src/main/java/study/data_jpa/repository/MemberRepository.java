@@ -30,10 +30,6 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.data_jpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
-    // 컬렉션 쿼리 적용
-    @Query("select m from Member m where m.username in :names")
-    List<Member> findByNames(@Param("names") List<String> names);
-
     List<Member> findListByUsername(String username);   // 컬렉션에서 조건에 부합하는 데이터가 없을 경우 빈 컬렉션 반환
     Member findMemberByUsername(String username);
     Optional<Member> findOptionalByUsername(String username);
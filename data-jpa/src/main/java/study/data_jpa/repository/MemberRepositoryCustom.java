@@ -14,4 +14,7 @@ import java.util.List;
  */
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    // 컬렉션 쿼리 적용 (이름이 많으면 IN 목록을 묶음으로 나눠 조회)
+    List<Member> findByNames(List<String> names);
 }
@@ -5,10 +5,14 @@ import lombok.RequiredArgsConstructor;
 import study.data_jpa.entity.Member;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    // IN 목록 하나에 넣는 이름 수 (2의 거듭제곱)
+    private static final int NAMES_CHUNK_SIZE = 128;
+
     private final EntityManager em;
 
 
@@ -17,4 +21,17 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    /**
+     * @Query로 IN 목록을 한 번에 넘기면 이름 수만큼 SQL 모양이 생기고 파라미터 수 제한에도 걸린다.
+     * InQueries로 NAMES_CHUNK_SIZE개씩 나누고 2의 거듭제곱 크기로 채워 SQL 모양을 몇 개로 고정한다.
+     */
+    @Override
+    public List<Member> findByNames(List<String> names) {
+        return InQueries.stream(names, NAMES_CHUNK_SIZE, chunk ->
+                        em.createQuery("select m from Member m where m.username in :names", Member.class)
+                                .setParameter("names", chunk)
+                                .getResultList())
+                .collect(Collectors.toList());
+    }
 }
@@ -16,6 +16,7 @@ import study.data_jpa.entity.Team;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -106,6 +107,20 @@ class MemberRepositoryTest {
         assertThat(findByNames.stream().filter(e -> e.getUsername().equals("AAA") || e.getUsername().equals("BBB")).collect(Collectors.toList())).size().isEqualTo(2);
     }
 
+    @Test
+    public void findByNames_chunked() {
+        // given (IN 목록 묶음 128개를 넘는 이름)
+        List<String> names = IntStream.range(0, 300).mapToObj(i -> "member" + i).collect(Collectors.toList());
+        names.forEach(name -> memberRepository.save(new Member(name, 10)));
+        memberRepository.save(new Member("other", 10));
+
+        // when
+        List<Member> findByNames = memberRepository.findByNames(names);
+
+        // then
+        assertThat(findByNames).extracting(Member::getUsername).containsExactlyInAnyOrderElementsOf(names);
+    }
+
     @Test
     public void returnType() {
         Member member1 = new Member("AAA", 10);
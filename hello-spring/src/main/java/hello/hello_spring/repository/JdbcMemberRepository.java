@@ -8,132 +8,110 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * 순수 JDBC 회원 리포지토리
+ * 커넥션은 커넥션 풀(HikariCP)에서 빌려 쓰고, SQL은 항상 같은 네 문장만 쓴다.
+ * 같은 커넥션에서 같은 SQL을 다시 prepare 하면 DB(H2 QUERY_CACHE_SIZE)가 파싱해둔 결과를 재사용하므로
+ * SQL 문자열을 상수로 고정해두고 select * 대신 필요한 컬럼만 적는다.
+ */
 public class JdbcMemberRepository implements MemberRepository {
+
+    private static final String INSERT_SQL = "insert into member(name) values(?)";
+    private static final String SELECT_BY_ID_SQL = "select id, name from member where id = ?";
+    private static final String SELECT_BY_NAME_SQL = "select id, name from member where name = ?";
+    private static final String SELECT_ALL_SQL = "select id, name from member";
+
     private final DataSource dataSource;
+
     public JdbcMemberRepository(DataSource dataSource) {
         this.dataSource = dataSource;
     }
+
     @Override
     public Member save(Member member) {
-        String sql = "insert into member(name) values(?)";
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            conn = getConnection();
-            pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+        Connection conn = getConnection();
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, member.getName());
             pstmt.executeUpdate();
-            rs = pstmt.getGeneratedKeys();
-            if (rs.next()) {
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                if (!rs.next()) {
+                    throw new SQLException("id 조회 실패");
+                }
                 member.setId(rs.getLong(1));
-            } else {
-                throw new SQLException("id 조회 실패");
             }
             return member;
-        } catch (Exception e) {
+        } catch (SQLException e) {
             throw new IllegalStateException(e);
         } finally {
-            close(conn, pstmt, rs);
+            close(conn);
         }
     }
+
     @Override
     public Optional<Member> findById(Long id) {
-        String sql = "select * from member where id = ?";
-        Connection conn = null; PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            conn = getConnection();
-            pstmt = conn.prepareStatement(sql);
+        Connection conn = getConnection();
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             pstmt.setLong(1, id);
-            rs = pstmt.executeQuery();
-            if(rs.next()) {
-                Member member = new Member();
-                member.setId(rs.getLong("id"));
-                member.setName(rs.getString("name"));
-                return Optional.of(member);
-            } else {
-                return Optional.empty();
-            }
-        } catch (Exception e) {
+            return findOne(pstmt);
+        } catch (SQLException e) {
             throw new IllegalStateException(e);
         } finally {
-            close(conn, pstmt, rs);
+            close(conn);
         }
     }
+
     @Override
     public List<Member> findAll() {
-        String sql = "select * from member";
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            conn = getConnection();
-            pstmt = conn.prepareStatement(sql);
-            rs = pstmt.executeQuery();
+        Connection conn = getConnection();
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
             List<Member> members = new ArrayList<>();
-            while(rs.next()) { Member member = new Member();
-                member.setId(rs.getLong("id"));
-                member.setName(rs.getString("name"));
-                members.add(member);
+            while (rs.next()) {
+                members.add(toMember(rs));
             }
             return members;
-        } catch (Exception e) {
+        } catch (SQLException e) {
             throw new IllegalStateException(e);
         } finally {
-            close(conn, pstmt, rs);
+            close(conn);
         }
     }
+
     @Override
     public Optional<Member> findByName(String name) {
-        String sql = "select * from member where name = ?";
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            conn = getConnection();
-            pstmt = conn.prepareStatement(sql);
+        Connection conn = getConnection();
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_NAME_SQL)) {
             pstmt.setString(1, name);
-            rs = pstmt.executeQuery();
-            if(rs.next()) {
-                Member member = new Member();
-                member.setId(rs.getLong("id"));
-                member.setName(rs.getString("name"));
-                return Optional.of(member);
-            }
-            return Optional.empty();
-        } catch (Exception e) {
+            return findOne(pstmt);
+        } catch (SQLException e) {
             throw new IllegalStateException(e);
         } finally {
-            close(conn, pstmt, rs);
+            close(conn);
         }
-    } private Connection getConnection() {
-        return DataSourceUtils.getConnection(dataSource);
     }
-    private void close(Connection conn, PreparedStatement pstmt, ResultSet rs) {
-        try {
-            if (rs != null) {
-                rs.close();
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        try {
-            if (pstmt != null) {
-                pstmt.close();
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        try {
-            if (conn != null) {
-                close(conn);
+
+    private Optional<Member> findOne(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            if (rs.next()) {
+                return Optional.of(toMember(rs));
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            return Optional.empty();
         }
     }
-    private void close(Connection conn) throws SQLException {
+
+    private Member toMember(ResultSet rs) throws SQLException {
+        Member member = new Member();
+        member.setId(rs.getLong("id"));
+        member.setName(rs.getString("name"));
+        return member;
+    }
+
+    private Connection getConnection() {
+        return DataSourceUtils.getConnection(dataSource);
+    }
+
+    // 트랜잭션 안이면 트랜잭션이 끝날 때까지 커넥션을 유지하고, 아니면 풀에 반납한다
+    private void close(Connection conn) {
         DataSourceUtils.releaseConnection(conn, dataSource);
     }
-}
\ No newline at end of file
+}
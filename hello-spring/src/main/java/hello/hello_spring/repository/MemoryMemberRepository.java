@@ -4,20 +4,31 @@ import hello.hello_spring.domain.Member;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 //@Repository
+// 여러 스레드가 동시에 가입해도 안전하도록 ConcurrentHashMap, AtomicLong 을 사용한다.
+// 이름 -> id 색인으로 이름 조회를 전체 순회 없이 바로 하고, 같은 이름은 저장 시점에 한 번 더 막는다.
 public class MemoryMemberRepository implements MemberRepository {
 
-    private static Map<Long, Member> store = new HashMap<>();
-    private static long sequence = 0L;
+    private static Map<Long, Member> store = new ConcurrentHashMap<>();
+    private static Map<String, Long> nameIndex = new ConcurrentHashMap<>();
+    private static AtomicLong sequence = new AtomicLong();
 
     public void clearStore() {
         store.clear();
+        nameIndex.clear();
     }
 
     @Override
     public Member save(Member member) {
-        member.setId(++sequence);
+        long id = sequence.incrementAndGet();
+        // 조회 후 저장 사이에 같은 이름이 먼저 저장될 수 있으므로 putIfAbsent 로 이름을 선점한다
+        if (member.getName() != null && nameIndex.putIfAbsent(member.getName(), id) != null) {
+            throw new IllegalStateException("이미 존재하는 회원입니다.");
+        }
+        member.setId(id);
         store.put(member.getId(), member);
         return member;
     }
@@ -28,11 +39,12 @@ public class MemoryMemberRepository implements MemberRepository {
     }
 
     @Override
-    // findAny()를 거치면 Optional 자동?
     public Optional<Member> findByName(String name) {
-        return store.values().stream()
-                .filter(member -> member.getName().equals(name))
-                .findAny();
+        if (name == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(nameIndex.get(name))
+                .map(store::get);
     }
 
     @Override
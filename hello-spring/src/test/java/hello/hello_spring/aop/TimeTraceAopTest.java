@@ -0,0 +1,66 @@
+package hello.hello_spring.aop;
+
+import hello.hello_spring.domain.Member;
+import hello.hello_spring.repository.MemoryMemberRepository;
+import hello.hello_spring.service.MemberService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeTraceAopTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+
+    @AfterEach
+    public void afterEach() {
+        memberRepository.clearStore();
+    }
+
+    @Test
+    void 메소드별_실행시간_기록() {
+        // given
+        MemberService memberService = proxy(new TimeTraceAop(meterRegistry, 1.0, List.of("hello.hello_spring")));
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            Member member = new Member();
+            member.setName("member" + i);
+            memberService.join(member);
+        }
+        memberService.findMembers();
+
+        // then
+        Timer join = meterRegistry.get("method.trace").tag("class", "MemberService").tag("method", "join").timer();
+        assertThat(join.count()).isEqualTo(100);
+        assertThat(join.takeSnapshot().percentileValues()).hasSize(3);
+        assertThat(meterRegistry.get("method.trace").tag("method", "findMembers").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void 샘플링_비율과_대상_필터() {
+        // given
+        MemberService excluded = proxy(new TimeTraceAop(meterRegistry, 1.0, List.of("hello.hello_spring.repository")));
+        MemberService neverSampled = proxy(new TimeTraceAop(meterRegistry, 0.0, List.of("hello.hello_spring")));
+
+        // when
+        excluded.findMembers();
+        neverSampled.findMembers();
+
+        // then
+        assertThat(meterRegistry.find("method.trace").timers()).isEmpty();
+    }
+
+    private MemberService proxy(TimeTraceAop timeTraceAop) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new MemberService(memberRepository));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(timeTraceAop);
+        return proxyFactory.getProxy();
+    }
+}
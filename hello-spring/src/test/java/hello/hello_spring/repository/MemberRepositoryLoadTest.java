@@ -0,0 +1,128 @@
+package hello.hello_spring.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import hello.hello_spring.domain.Member;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 커넥션 풀, 같은 스키마(sql/ddl.sql)에서 리포지토리 구현별로 여러 쓰레드가 동시에 저장, 조회
+ * 한 번의 작업 = 트랜잭션 하나에서 save, findById, findByName
+ * name 컬럼에는 인덱스가 없어 findByName 비용이 회원 수에 비례하므로, 구현마다 테이블을 비우고 시작한다.
+ * 처리량 비교는 HELLO_SPRING_BENCHMARK=true 일 때만 실행한다. (jpashop 벤치마크와 따로 켜고 끈다)
+ * HELLO_SPRING_BENCHMARK=true ./gradlew test --tests "*MemberRepositoryLoadTest"
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:load",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=file:sql/ddl.sql",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)    // 임베디드 DB로 바꾸지 않고 HikariCP 풀을 그대로 쓴다
+@Transactional(propagation = Propagation.NOT_SUPPORTED)     // 여러 쓰레드에서 각자 커밋해야 하므로 테스트 트랜잭션을 쓰지 않는다
+class MemberRepositoryLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MemberRepositoryLoadTest.class);
+
+    static final int THREAD_COUNT = 8;
+    static final int OPERATION_COUNT = 250;
+    static final int SMOKE_OPERATION_COUNT = 20;
+
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void 동시_저장_누락_없음() throws Exception {
+        for (Map.Entry<String, MemberRepository> entry : repositories().entrySet()) {
+            run(entry.getKey(), entry.getValue(), SMOKE_OPERATION_COUNT);
+
+            assertThat(entry.getValue().findAll()).hasSize(THREAD_COUNT * SMOKE_OPERATION_COUNT);
+            jdbcTemplate.update("truncate table member");
+        }
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "HELLO_SPRING_BENCHMARK", matches = "true")
+    void 리포지토리별_처리량() throws Exception {
+        for (Map.Entry<String, MemberRepository> entry : repositories().entrySet()) {
+            // 워밍업
+            run(entry.getKey() + "-warmup", entry.getValue(), OPERATION_COUNT);
+            jdbcTemplate.update("truncate table member");
+
+            long start = System.nanoTime();
+            run(entry.getKey(), entry.getValue(), OPERATION_COUNT);
+            long elapsed = System.nanoTime() - start;
+
+            HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+            log.info("{}: {} ops/s (pool total={}, active={}, idle={}, waiting={})",
+                    entry.getKey(), THREAD_COUNT * OPERATION_COUNT * 1_000_000_000L / elapsed,
+                    pool.getTotalConnections(), pool.getActiveConnections(), pool.getIdleConnections(),
+                    pool.getThreadsAwaitingConnection());
+
+            assertThat(entry.getValue().findAll()).hasSize(THREAD_COUNT * OPERATION_COUNT);
+            jdbcTemplate.update("truncate table member");
+        }
+    }
+
+    private Map<String, MemberRepository> repositories() {
+        Map<String, MemberRepository> repositories = new LinkedHashMap<>();
+        repositories.put("jdbc", new JdbcMemberRepository(dataSource));
+        repositories.put("jdbcTemplate", new JdbcTemplateMemberRepository(dataSource));
+        repositories.put("jpa", new JpaMemberRepository(em));
+        return repositories;
+    }
+
+    private void run(String prefix, MemberRepository repository, int operationCount) throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            String threadPrefix = prefix + "-" + t + "-";
+            futures.add(executorService.submit(() -> {
+                for (int i = 0; i < operationCount; i++) {
+                    String name = threadPrefix + i;
+                    transactionTemplate.executeWithoutResult(status -> {
+                        Member member = new Member();
+                        member.setName(name);
+                        repository.save(member);
+                        assertThat(repository.findById(member.getId())).isPresent();
+                        assertThat(repository.findByName(name)).isPresent();
+                    });
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+    }
+}
@@ -1,20 +1,34 @@
 package jpabook.jpashop.api;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.CursorResult;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.repository.Result;
-import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderColumnsDto;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.OrderCommand;
+import jpabook.jpashop.service.OrderExportService;
+import jpabook.jpashop.service.OrderService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -24,8 +38,13 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderApiController {
 
+    // 커서 페이징 한 번에 가져오는 최대 주문 수
+    private static final int MAX_CURSOR_LIMIT = 1000;
+
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final OrderExportService orderExportService;
+    private final OrderService orderService;
 
     /**
      * ordersV1 엔티티를 그대로 반환
@@ -98,6 +117,27 @@ public class OrderApiController {
         return new Result(result);
     }
 
+    /**
+     * ordersV3_cursor offset 대신 커서(keyset) 기반 페이징
+     * offset이 커질수록 느려지는 V3.1과 달리 where o.id > :cursor 로 인덱스를 타므로 페이지 위치와 상관없이 비용이 같다.
+     * 응답의 nextCursor를 다음 요청의 after 파라미터로 넘기면 다음 페이지를 가져온다.
+     * limit이 1~MAX_CURSOR_LIMIT 밖이거나 after가 잘못된 커서면 400으로 응답한다.
+     */
+    @GetMapping("/api/v3.2/orders")
+    public CursorResult ordersV3_cursor(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+    ) {
+        List<Order> orders = orderRepository.findAllWithMemberDeliveryAfter(decodeCursor(after), checkCursorLimit(limit));
+
+        List<OrderDto> result = orders.stream()
+                .map(o -> new OrderDto(o))
+                .collect(Collectors.toList());
+
+        Long lastId = orders.isEmpty() ? null : orders.get(orders.size() - 1).getId();
+        return new CursorResult(result, CursorResult.next(orders.size(), limit, lastId));
+    }
+
     /**
      * ordersV4 DB 데이터 DTO로 받아오는 API
      * 1대다를 Id 하나당 쿼리 하나씩 호출하니 N+1문제가 생긴다.
@@ -120,11 +160,118 @@ public class OrderApiController {
         return new Result(orderQueryDtos);
     }
 
+    /**
+     * ordersV5_cursor V5를 커서(keyset) 기반으로 페이징 (파라미터 검증은 V3.2와 같다)
+     */
+    @GetMapping("/api/v5.1/orders")
+    public CursorResult ordersV5_cursor(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+    ) {
+        List<OrderQueryDto> orderQueryDtos = orderQueryRepository.findAllByDto_cursor(decodeCursor(after), checkCursorLimit(limit));
+
+        Long lastId = orderQueryDtos.isEmpty() ? null : orderQueryDtos.get(orderQueryDtos.size() - 1).getOrderId();
+        return new CursorResult(orderQueryDtos, CursorResult.next(orderQueryDtos.size(), limit, lastId));
+    }
+
+    /**
+     * ordersV5_parallel V5의 OrderItem IN 쿼리를 묶음으로 나눠 여러 커넥션에서 동시에 실행
+     */
+    @GetMapping("/api/v5.2/orders")
+    public Result ordersV5_parallel() {
+        List<OrderQueryDto> orderQueryDtos = orderQueryRepository.findAllByDto_parallel();
+
+        return new Result(orderQueryDtos);
+    }
+
+    /**
+     * ordersV6 쿼리 한 번(flat 조인)으로 가져온 뒤 주문 단위로 다시 묶어서 반환
+     * 응답 모양은 V5와 같고, 주문 정보가 주문상품 수만큼 중복되어 내려가지 않는다.
+     */
     @GetMapping("/api/v6/orders")
     public Result ordersV6() {
-        List<OrderFlatDto> orderFlatDtos = orderQueryRepository.findAllByDto_flat();
+        List<OrderQueryDto> orderQueryDtos = orderQueryRepository.findAllByDto_flatGrouped();
+
+        return new Result(orderQueryDtos);
+    }
 
-        return new Result(orderFlatDtos);
+    /**
+     * ordersV6_columns V6 결과를 필드별 배열(열 단위)로 반환
+     * 주문, 주문상품마다 반복되는 필드 이름이 빠져 응답 크기가 줄어든다.
+     */
+    @GetMapping("/api/v6.1/orders")
+    public Result ordersV6_columns() {
+        List<OrderQueryDto> orderQueryDtos = orderQueryRepository.findAllByDto_flatGrouped();
+
+        return new Result(new OrderColumnsDto(orderQueryDtos));
+    }
+
+    /**
+     * ordersV6_export 주문 전체를 NDJSON으로 스트리밍
+     * V6처럼 전체 결과를 List로 만든 뒤 직렬화하지 않고, 읽는 즉시 주문 단위로 묶어 한 줄씩 내려보낸다.
+     * StreamingResponseBody는 별도 쓰레드에서 실행되므로 트랜잭션은 OrderExportService에서 연다.
+     */
+    @GetMapping(value = "/api/v6/orders/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> ordersV6_export() {
+        StreamingResponseBody body = out -> orderExportService.exportOrders(out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * 여러 주문을 한 번에 생성
+     * 주문마다 API를 호출하지 않고 하나의 트랜잭션에서 JDBC 배치 insert로 처리한다.
+     * 주문, 주문상품 목록이 비어 있거나 회원/상품 id가 없으면 400으로 응답한다.
+     */
+    @PostMapping("/api/v1/orders/batch")
+    public Result saveOrdersV1(@RequestBody @Valid CreateOrdersRequest request) {
+        List<OrderCommand> commands = request.getOrders().stream()
+                .map(o -> new OrderCommand(o.getMemberId(), o.getItems().stream()
+                        .map(i -> new OrderCommand.OrderLine(i.getItemId(), i.getCount()))
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+
+        List<Long> orderIds = orderService.placeOrders(commands);
+        return new Result(orderIds);
+    }
+
+    private static Long decodeCursor(String after) {
+        try {
+            return CursorResult.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    private static int checkCursorLimit(int limit) {
+        if (limit < 1 || limit > MAX_CURSOR_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit은 1 이상 " + MAX_CURSOR_LIMIT + " 이하여야 합니다. limit=" + limit);
+        }
+        return limit;
+    }
+
+    @Data
+    static class CreateOrdersRequest {
+        @NotEmpty
+        private List<@NotNull @Valid CreateOrderRequest> orders;
+    }
+
+    @Data
+    static class CreateOrderRequest {
+        @NotNull
+        private Long memberId;
+        @NotEmpty
+        private List<@NotNull @Valid CreateOrderItemRequest> items;
+    }
+
+    @Data
+    static class CreateOrderItemRequest {
+        @NotNull
+        private Long itemId;
+        private int count;
     }
 
 
@@ -0,0 +1,256 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 주문 API DTO(OrderDto, OrderItemDto, OrderQueryDto, OrderItemQueryDto) 전용 직렬화
+ * 기본 BeanSerializer는 필드마다 리플렉션으로 getter를 호출하고 값 타입별 serializer를 찾아가며 쓰는데,
+ * 주문 수만 건짜리 응답에서는 이 비용이 CPU 대부분을 차지한다.
+ * 여기서는 필드 이름을 미리 인코딩해 둔 SerializedString으로 쓰고, 값은 getter를 직접 호출해 바로 쓴다.
+ *
+ * 출력은 기본 직렬화(스프링 부트 기본 설정)와 같아야 한다.
+ * 날짜는 ISO-8601 문자열(WRITE_DATES_AS_TIMESTAMPS 끔), null 필드도 그대로 null로 쓴다.
+ * 필드를 추가하면 여기도 함께 고쳐야 하며 OrderJsonModuleTest가 기본 직렬화와 결과를 비교한다.
+ * jpashop.json.order-serializers=false 면 등록하지 않는다. (스프링 부트가 Module 빈을 ObjectMapper에 등록)
+ */
+@Component
+@ConditionalOnProperty(name = "jpashop.json.order-serializers", havingValue = "true", matchIfMissing = true)
+public class OrderJsonModule extends SimpleModule {
+
+    private static final SerializedString ORDER_ID = new SerializedString("orderId");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString ORDER_DATE = new SerializedString("orderDate");
+    private static final SerializedString ORDER_STATUS = new SerializedString("orderStatus");
+    private static final SerializedString ADDRESS = new SerializedString("address");
+    private static final SerializedString ORDER_ITEMS = new SerializedString("orderItems");
+    private static final SerializedString ORDER_ITEM = new SerializedString("orderItem");
+    private static final SerializedString ITEM_NAME = new SerializedString("itemName");
+    private static final SerializedString ORDER_PRICE = new SerializedString("orderPrice");
+    private static final SerializedString COUNT = new SerializedString("count");
+    private static final SerializedString CITY = new SerializedString("city");
+    private static final SerializedString STREET = new SerializedString("street");
+    private static final SerializedString ZIPCODE = new SerializedString("zipcode");
+
+    private static final SerializedString[] ORDER_STATUSES = new SerializedString[OrderStatus.values().length];
+
+    static {
+        for (OrderStatus status : OrderStatus.values()) {
+            ORDER_STATUSES[status.ordinal()] = new SerializedString(status.name());
+        }
+    }
+
+    public OrderJsonModule() {
+        super("OrderJsonModule");
+        DateWriter dateWriter = new DateWriter();
+        addSerializer(OrderApiController.OrderDto.class, new OrderDtoSerializer(dateWriter));
+        addSerializer(OrderApiController.OrderItemDto.class, new OrderItemDtoSerializer());
+        addSerializer(OrderQueryDto.class, new OrderQueryDtoSerializer(dateWriter));
+        addSerializer(OrderItemQueryDto.class, new OrderItemQueryDtoSerializer());
+    }
+
+    static class OrderDtoSerializer extends StdSerializer<OrderApiController.OrderDto> {
+
+        private final DateWriter dateWriter;
+
+        OrderDtoSerializer(DateWriter dateWriter) {
+            super(OrderApiController.OrderDto.class);
+            this.dateWriter = dateWriter;
+        }
+
+        @Override
+        public void serialize(OrderApiController.OrderDto order, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(order);
+            writeOrderHeader(gen, dateWriter, order.getOrderId(), order.getName(), order.getOrderDate(), order.getOrderStatus(), order.getAddress());
+
+            gen.writeFieldName(ORDER_ITEMS);
+            List<OrderApiController.OrderItemDto> orderItems = order.getOrderItems();
+            if (orderItems == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(orderItems, orderItems.size());
+                for (OrderApiController.OrderItemDto orderItem : orderItems) {
+                    OrderItemDtoSerializer.write(orderItem, gen);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static class OrderItemDtoSerializer extends StdSerializer<OrderApiController.OrderItemDto> {
+
+        OrderItemDtoSerializer() {
+            super(OrderApiController.OrderItemDto.class);
+        }
+
+        @Override
+        public void serialize(OrderApiController.OrderItemDto orderItem, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            write(orderItem, gen);
+        }
+
+        static void write(OrderApiController.OrderItemDto orderItem, JsonGenerator gen) throws IOException {
+            if (orderItem == null) {
+                gen.writeNull();
+                return;
+            }
+            gen.writeStartObject(orderItem);
+            gen.writeFieldName(ITEM_NAME);
+            gen.writeString(orderItem.getItemName());
+            gen.writeFieldName(ORDER_PRICE);
+            gen.writeNumber(orderItem.getOrderPrice());
+            gen.writeFieldName(COUNT);
+            gen.writeNumber(orderItem.getCount());
+            gen.writeEndObject();
+        }
+    }
+
+    static class OrderQueryDtoSerializer extends StdSerializer<OrderQueryDto> {
+
+        private final DateWriter dateWriter;
+
+        OrderQueryDtoSerializer(DateWriter dateWriter) {
+            super(OrderQueryDto.class);
+            this.dateWriter = dateWriter;
+        }
+
+        @Override
+        public void serialize(OrderQueryDto order, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(order);
+            writeOrderHeader(gen, dateWriter, order.getOrderId(), order.getName(), order.getOrderDate(), order.getOrderStatus(), order.getAddress());
+
+            gen.writeFieldName(ORDER_ITEM);
+            List<OrderItemQueryDto> orderItems = order.getOrderItem();
+            if (orderItems == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(orderItems, orderItems.size());
+                for (OrderItemQueryDto orderItem : orderItems) {
+                    OrderItemQueryDtoSerializer.write(orderItem, gen);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static class OrderItemQueryDtoSerializer extends StdSerializer<OrderItemQueryDto> {
+
+        OrderItemQueryDtoSerializer() {
+            super(OrderItemQueryDto.class);
+        }
+
+        @Override
+        public void serialize(OrderItemQueryDto orderItem, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            write(orderItem, gen);
+        }
+
+        static void write(OrderItemQueryDto orderItem, JsonGenerator gen) throws IOException {
+            if (orderItem == null) {
+                gen.writeNull();
+                return;
+            }
+            gen.writeStartObject(orderItem);
+            gen.writeFieldName(ORDER_ID);
+            writeLong(gen, orderItem.getOrderId());
+            gen.writeFieldName(ITEM_NAME);
+            gen.writeString(orderItem.getItemName());
+            gen.writeFieldName(ORDER_PRICE);
+            gen.writeNumber(orderItem.getOrderPrice());
+            gen.writeFieldName(COUNT);
+            gen.writeNumber(orderItem.getCount());
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeOrderHeader(JsonGenerator gen, DateWriter dateWriter, Long orderId, String name,
+                                         LocalDateTime orderDate, OrderStatus orderStatus, Address address) throws IOException {
+        gen.writeFieldName(ORDER_ID);
+        writeLong(gen, orderId);
+        gen.writeFieldName(NAME);
+        gen.writeString(name);
+        gen.writeFieldName(ORDER_DATE);
+        dateWriter.write(gen, orderDate);
+        gen.writeFieldName(ORDER_STATUS);
+        if (orderStatus == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(ORDER_STATUSES[orderStatus.ordinal()]);
+        }
+        gen.writeFieldName(ADDRESS);
+        writeAddress(gen, address);
+    }
+
+    private static void writeAddress(JsonGenerator gen, Address address) throws IOException {
+        if (address == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(address);
+        gen.writeFieldName(CITY);
+        gen.writeString(address.getCity());
+        gen.writeFieldName(STREET);
+        gen.writeString(address.getStreet());
+        gen.writeFieldName(ZIPCODE);
+        gen.writeString(address.getZipcode());
+        gen.writeEndObject();
+    }
+
+    private static void writeLong(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value.longValue());
+        }
+    }
+
+    /**
+     * LocalDateTime을 ISO-8601 문자열로 쓰되 최근에 포맷한 값은 인코딩된 결과를 다시 쓴다.
+     * 같은 시각(한 번에 생성된 주문, 분 단위 시각 등)이 반복해서 나오는 경우가 많아 hashCode로 자리를 정하는 작은 캐시를 둔다.
+     * 여러 쓰레드가 함께 쓰지만 항목이 불변 객체라 서로 덮어써도 캐시 미스가 날 뿐이다.
+     */
+    static class DateWriter {
+
+        private static final int CACHE_SIZE = 256;
+
+        private final FormattedDate[] cache = new FormattedDate[CACHE_SIZE];
+
+        void write(JsonGenerator gen, LocalDateTime date) throws IOException {
+            if (date == null) {
+                gen.writeNull();
+                return;
+            }
+            int slot = date.hashCode() & (CACHE_SIZE - 1);
+            FormattedDate cached = cache[slot];
+            if (cached == null || !date.equals(cached.date)) {
+                cached = new FormattedDate(date, new SerializedString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(date)));
+                cache[slot] = cached;
+            }
+            gen.writeString(cached.text);
+        }
+    }
+
+    private static class FormattedDate {
+        private final LocalDateTime date;
+        private final SerializedString text;
+
+        private FormattedDate(LocalDateTime date, SerializedString text) {
+            this.date = date;
+            this.text = text;
+        }
+    }
+}
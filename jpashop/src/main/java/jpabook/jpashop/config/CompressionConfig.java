@@ -0,0 +1,37 @@
+package jpabook.jpashop.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * /api/* 응답 gzip 압축 (jpashop.compression.enabled=true 일 때만)
+ * server.compression(톰캣 압축)은 요청마다 Deflater와 버퍼를 새로 만들고 메트릭이 없어 대신 GzipCompressionFilter를 쓴다.
+ * 둘을 같이 켜면 이미 압축된 응답은 Content-Encoding을 보고 톰캣이 건너뛴다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.compression.enabled", havingValue = "true")
+public class CompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<GzipCompressionFilter> gzipCompressionFilter(
+            MeterRegistry meterRegistry,
+            @Value("${jpashop.compression.min-size:2048}") int minSize,
+            @Value("${jpashop.compression.level:6}") int level,
+            @Value("${jpashop.compression.pool-size:16}") int poolSize,
+            @Value("${jpashop.compression.initial-buffer-size:65536}") int initialBufferSize,
+            @Value("${jpashop.compression.max-retained-buffer-size:1048576}") int maxRetainedBufferSize) {
+        GzipCompressionFilter filter = new GzipCompressionFilter(meterRegistry, minSize, level, poolSize,
+                initialBufferSize, maxRetainedBufferSize);
+
+        FilterRegistrationBean<GzipCompressionFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        // 다른 필터가 응답을 감싸기 전에 가장 바깥에서 본문을 모은다
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,77 @@
+package jpabook.jpashop.config;
+
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DataSourceDecorator;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 전용 트랜잭션을 복제본으로 보내는 DataSource 등록 (jpashop.datasource.routing.enabled=true)
+ * 원본은 spring.datasource 설정을, 복제본은 replica-urls 주소에 같은 계정으로 접속한다.
+ * 서비스 클래스의 @Transactional(readOnly = true)가 그대로 복제본 조회가 된다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    /**
+     * p6spy는 DataSource 빈을 감싸면서 커넥션을 바로 얻으므로 이 빈은 감싸지 않고(decorator.datasource.exclude-beans)
+     * 안쪽의 원본, 복제본 커넥션 풀을 감싼다
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicationRoutingDataSource replicationRoutingDataSource(DataSourceProperties properties,
+                                                   @Value("${jpashop.datasource.routing.replica-urls:}") List<String> replicaUrls,
+                                                   @Value("${jpashop.datasource.routing.lag-query:select 0}") String lagQuery,
+                                                   @Value("${jpashop.datasource.routing.max-lag-seconds:5}") double maxLagSeconds,
+                                                   @Value("${jpashop.datasource.routing.check-interval:5000}") long checkInterval,
+                                                   MeterRegistry meterRegistry,
+                                                   TaskScheduler taskScheduler,
+                                                   ObjectProvider<DataSourceDecorator> decorators) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("jpashop-primary");
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+            replica.setPoolName("jpashop-replica-" + replicas.size());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+
+        ReplicationRoutingDataSource dataSource = new ReplicationRoutingDataSource(primary, replicas, lagQuery, maxLagSeconds, meterRegistry,
+                (name, target) -> {
+                    DataSource decorated = target;
+                    for (DataSourceDecorator decorator : decorators.orderedStream().toList()) {
+                        decorated = decorator.decorate(name, decorated);
+                    }
+                    return decorated;
+                });
+        dataSource.checkReplicas();
+        taskScheduler.scheduleWithFixedDelay(dataSource::checkReplicas, Duration.ofMillis(checkInterval));
+        return dataSource;
+    }
+
+    /**
+     * 기본값(DELAYED_ACQUISITION_AND_HOLD)은 OSIV에서 한 요청 동안 처음 얻은 커넥션을 계속 쓰므로,
+     * 읽기 전용 트랜잭션 다음의 쓰기 트랜잭션이 복제본 커넥션을 그대로 쓰게 된다. 트랜잭션이 끝나면 반납하도록 바꾼다.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
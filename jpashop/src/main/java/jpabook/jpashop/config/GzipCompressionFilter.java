@@ -0,0 +1,351 @@
+package jpabook.jpashop.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 목록 API의 JSON 응답을 gzip으로 압축
+ * 클라이언트가 Accept-Encoding으로 gzip을 받겠다고 한 요청만 본문을 버퍼에 모은 뒤,
+ * minSize 이상이고 JSON/텍스트인 응답만 압축한다. 작은 응답은 압축해도 줄어드는 양보다 CPU가 더 든다.
+ * 버퍼와 Deflater는 GzipCompressor 풀에서 빌려 써서 요청마다 새로 할당하지 않는다. (풀이 비면 새로 만들고, 가득 차면 버린다)
+ *
+ * 컨트롤러 메서드별로 기록한다. (handler=OrderApiController.ordersV5)
+ * - jpashop.response.compression.original / compressed : 압축 전후 본문 크기
+ * - jpashop.response.compression.saved : 압축으로 줄인 바이트 수 누적
+ * - jpashop.response.compression : 압축에 쓴 CPU 시간 (쓰레드 CPU 시간을 지원하지 않으면 경과 시간)
+ *
+ * StreamingResponseBody 같은 비동기 응답은 다른 쓰레드에서 계속 쓰므로 그때부터 압축 없이 그대로 내보낸다.
+ * br(Brotli)은 JDK에 인코더가 없어 지원하지 않고, br만 허용한 요청은 압축하지 않는다.
+ */
+public class GzipCompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final MeterRegistry meterRegistry;
+    private final int minSize;
+    private final int level;
+    private final int initialBufferSize;
+    private final int maxRetainedBufferSize;
+    private final BlockingQueue<GzipCompressor> pool;
+
+    public GzipCompressionFilter(MeterRegistry meterRegistry, int minSize, int level, int poolSize,
+                                 int initialBufferSize, int maxRetainedBufferSize) {
+        this.meterRegistry = meterRegistry;
+        this.minSize = minSize;
+        this.level = level;
+        this.initialBufferSize = initialBufferSize;
+        this.maxRetainedBufferSize = maxRetainedBufferSize;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        GzipCompressor compressor = borrow();
+        BufferingResponseWrapper wrapper = new BufferingResponseWrapper(response, compressor.body());
+        try {
+            filterChain.doFilter(request, wrapper);
+
+            // 비동기 응답은 모아둔 내용만 내보내고 이후로는 다른 쓰레드가 원래 응답에 바로 쓴다
+            if (request.isAsyncStarted()) {
+                wrapper.passThrough();
+                return;
+            }
+            wrapper.flushWriter();
+            writeBody(request, response, compressor);
+        } finally {
+            wrapper.passThrough = true;
+            release(compressor);
+        }
+    }
+
+    private void writeBody(HttpServletRequest request, HttpServletResponse response, GzipCompressor compressor) throws IOException {
+        GzipCompressor.Buffer body = compressor.body();
+        int size = body.size();
+        if (size < minSize || !isCompressible(response)) {
+            if (!response.isCommitted()) {
+                response.setContentLength(size);
+            }
+            body.writeTo(response.getOutputStream());
+            return;
+        }
+
+        long start = cpuTime();
+        compressor.compress();
+        long elapsed = cpuTime() - start;
+
+        int compressedSize = compressor.compressedSize();
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        response.setContentLength(compressedSize);
+        compressor.writeCompressedTo(response.getOutputStream());
+
+        String handler = handlerName(request);
+        meterRegistry.timer("jpashop.response.compression", "handler", handler).record(elapsed, TimeUnit.NANOSECONDS);
+        meterRegistry.summary("jpashop.response.compression.original", "handler", handler).record(size);
+        meterRegistry.summary("jpashop.response.compression.compressed", "handler", handler).record(compressedSize);
+        meterRegistry.counter("jpashop.response.compression.saved", "handler", handler).increment(size - compressedSize);
+    }
+
+    private boolean isCompressible(HttpServletResponse response) {
+        if (response.isCommitted() || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            return false;
+        }
+        String contentType = response.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.contains("json") || type.contains("xml");
+    }
+
+    /**
+     * Accept-Encoding에서 gzip을 받는지 본다. (gzip;q=0 은 거부, gzip이 없으면 * 를 따른다)
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals(GZIP) && !name.equals("x-gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean accepted = quality(parts) > 0;
+            if (!name.equals("*")) {
+                return accepted;
+            }
+            wildcard = accepted;
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static String handlerName(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        return handler instanceof HandlerMethod ? QueryCountInterceptor.handlerName((HandlerMethod) handler) : "none";
+    }
+
+    private static long cpuTime() {
+        return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private GzipCompressor borrow() {
+        GzipCompressor compressor = pool.poll();
+        return compressor != null ? compressor : new GzipCompressor(level, initialBufferSize, maxRetainedBufferSize);
+    }
+
+    private void release(GzipCompressor compressor) {
+        compressor.reset();
+        if (!pool.offer(compressor)) {
+            compressor.end();
+        }
+    }
+
+    /**
+     * 응답 본문을 원래 응답 대신 버퍼에 모은다. Content-Length는 압축 여부가 정해진 뒤 filter가 설정한다.
+     * passThrough() 이후에는 모아둔 내용을 내보내고 원래 응답으로 바로 쓴다.
+     * 논블로킹 쓰기(setWriteListener)는 원래 응답으로 바로 쓰는 passThrough() 이후에만 쓸 수 있다.
+     */
+    static class BufferingResponseWrapper extends HttpServletResponseWrapper {
+
+        private final GzipCompressor.Buffer buffer;
+        private final ServletOutputStream outputStream = new BufferingOutputStream();
+        private PrintWriter writer;
+        private volatile boolean passThrough;
+
+        BufferingResponseWrapper(HttpServletResponse response, GzipCompressor.Buffer buffer) {
+            super(response);
+            this.buffer = buffer;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            if (passThrough) {
+                super.setContentLength(len);
+            }
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (passThrough) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (passThrough || !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (passThrough || !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (passThrough) {
+                super.flushBuffer();
+            } else {
+                flushWriter();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            resetBody();
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            resetBody();
+            super.reset();
+        }
+
+        // passThrough 이후의 버퍼는 풀로 돌아가 다른 요청이 쓰고 있을 수 있다
+        private void resetBody() {
+            synchronized (outputStream) {
+                if (!passThrough) {
+                    buffer.reset();
+                }
+            }
+        }
+
+        void flushWriter() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        void passThrough() throws IOException {
+            synchronized (outputStream) {
+                if (passThrough) {
+                    return;
+                }
+                flushWriter();
+                buffer.writeTo(getResponse().getOutputStream());
+                buffer.reset();
+                passThrough = true;
+            }
+        }
+
+        private class BufferingOutputStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                synchronized (this) {
+                    if (!passThrough) {
+                        buffer.write(b);
+                        return;
+                    }
+                }
+                getResponse().getOutputStream().write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                synchronized (this) {
+                    if (!passThrough) {
+                        buffer.write(b, off, len);
+                        return;
+                    }
+                }
+                getResponse().getOutputStream().write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (passThrough) {
+                    getResponse().getOutputStream().flush();
+                }
+            }
+
+            // 버퍼에 쓰는 동안은 항상 바로 쓸 수 있다
+            @Override
+            public boolean isReady() {
+                return !passThrough || responseOutputStream().isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                if (!passThrough) {
+                    throw new IllegalStateException("non-blocking IO is not supported while buffering");
+                }
+                responseOutputStream().setWriteListener(writeListener);
+            }
+
+            private ServletOutputStream responseOutputStream() {
+                try {
+                    return getResponse().getOutputStream();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
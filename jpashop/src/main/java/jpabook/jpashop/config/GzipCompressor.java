@@ -0,0 +1,158 @@
+package jpabook.jpashop.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 응답 본문을 모아두는 버퍼와 gzip 압축기 한 벌
+ * GZIPOutputStream은 만들 때마다 Deflater(네이티브 메모리)와 버퍼를 새로 잡으므로,
+ * GzipCompressionFilter가 이 객체를 풀에 넣어두고 요청마다 빌려 쓴 뒤 reset 해서 돌려준다.
+ * 쓰레드 안전하지 않으므로 한 번에 한 요청만 사용한다.
+ */
+class GzipCompressor {
+
+    // RFC 1952 헤더: magic, CM=deflate, FLG=0, MTIME=0, XFL=0, OS=unknown
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int TRAILER_SIZE = 8;
+
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final int initialBufferSize;
+    private final int maxRetainedBufferSize;
+
+    private final Buffer body;
+    private byte[] compressed;
+    private int compressedSize;
+
+    GzipCompressor(int level, int initialBufferSize, int maxRetainedBufferSize) {
+        // nowrap=true: zlib 헤더 없이 deflate 데이터만 만들고 gzip 헤더/트레일러는 직접 쓴다
+        this.deflater = new Deflater(level, true);
+        this.initialBufferSize = initialBufferSize;
+        this.maxRetainedBufferSize = maxRetainedBufferSize;
+        this.body = new Buffer(initialBufferSize);
+        this.compressed = new byte[initialBufferSize];
+    }
+
+    /**
+     * 응답 본문을 쓰는 곳
+     */
+    Buffer body() {
+        return body;
+    }
+
+    /**
+     * body에 모인 내용을 gzip으로 압축한다. 결과는 writeCompressedTo로 꺼낸다.
+     */
+    void compress() {
+        int size = body.size();
+        ensureCompressedCapacity(HEADER.length + size / 2 + TRAILER_SIZE);
+        System.arraycopy(HEADER, 0, compressed, 0, HEADER.length);
+        compressedSize = HEADER.length;
+
+        deflater.setInput(body.buf, 0, size);
+        deflater.finish();
+        while (!deflater.finished()) {
+            if (compressedSize == compressed.length) {
+                ensureCompressedCapacity(compressed.length * 2);
+            }
+            compressedSize += deflater.deflate(compressed, compressedSize, compressed.length - compressedSize);
+        }
+
+        crc.update(body.buf, 0, size);
+        ensureCompressedCapacity(compressedSize + TRAILER_SIZE);
+        writeIntLE((int) crc.getValue());
+        writeIntLE(size);
+    }
+
+    int compressedSize() {
+        return compressedSize;
+    }
+
+    void writeCompressedTo(OutputStream out) throws IOException {
+        out.write(compressed, 0, compressedSize);
+    }
+
+    /**
+     * 다음 요청을 위해 비운다. 큰 응답 때문에 늘어난 버퍼는 처음 크기로 되돌린다.
+     */
+    void reset() {
+        deflater.reset();
+        crc.reset();
+        compressedSize = 0;
+        body.reset(maxRetainedBufferSize, initialBufferSize);
+        if (compressed.length > maxRetainedBufferSize) {
+            compressed = new byte[initialBufferSize];
+        }
+    }
+
+    void end() {
+        deflater.end();
+    }
+
+    private void ensureCompressedCapacity(int capacity) {
+        if (compressed.length < capacity) {
+            compressed = Arrays.copyOf(compressed, Math.max(capacity, compressed.length * 2));
+        }
+    }
+
+    private void writeIntLE(int value) {
+        compressed[compressedSize++] = (byte) value;
+        compressed[compressedSize++] = (byte) (value >> 8);
+        compressed[compressedSize++] = (byte) (value >> 16);
+        compressed[compressedSize++] = (byte) (value >> 24);
+    }
+
+    /**
+     * ByteArrayOutputStream과 같지만 synchronized가 없고 내부 배열을 그대로 압축기에 넘긴다
+     */
+    static class Buffer extends OutputStream {
+
+        private byte[] buf;
+        private int count;
+
+        Buffer(int initialSize) {
+            this.buf = new byte[initialSize];
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(count + 1);
+            buf[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(count + len);
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
+        }
+
+        int size() {
+            return count;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(buf, 0, count);
+        }
+
+        void reset() {
+            count = 0;
+        }
+
+        private void reset(int maxRetainedSize, int initialSize) {
+            count = 0;
+            if (buf.length > maxRetainedSize) {
+                buf = new byte[initialSize];
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (buf.length < capacity) {
+                buf = Arrays.copyOf(buf, Math.max(capacity, buf.length * 2));
+            }
+        }
+    }
+}
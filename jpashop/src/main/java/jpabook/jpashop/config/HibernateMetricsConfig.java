@@ -0,0 +1,40 @@
+package jpabook.jpashop.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate 통계(hibernate.generate_statistics)를 Micrometer에 등록
+ * 스프링 부트 3부터는 자동 등록되지 않아 직접 등록한다.
+ * 2차 캐시 region별 hit/miss는 /actuator/metrics/hibernate.second.level.cache.requests?tag=region:item 로 확인할 수 있다.
+ * 쿼리 플랜 캐시는 hibernate.cache.query.plan(hit/miss 횟수), hibernate.cache.query.plan.hit.ratio(누적 적중률)로 확인한다.
+ */
+@Configuration
+public class HibernateMetricsConfig {
+
+    @Bean
+    public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory", Tags.empty());
+    }
+
+    @Bean
+    public MeterBinder queryPlanCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> Gauge.builder("hibernate.cache.query.plan.hit.ratio", statistics, HibernateMetricsConfig::queryPlanHitRatio)
+                .description("The ratio of query plan lookups served from the query plan cache")
+                .register(registry);
+    }
+
+    private static double queryPlanHitRatio(Statistics statistics) {
+        long hit = statistics.getQueryPlanCacheHitCount();
+        long total = hit + statistics.getQueryPlanCacheMissCount();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+}
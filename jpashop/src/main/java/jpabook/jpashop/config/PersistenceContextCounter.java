@@ -0,0 +1,59 @@
+package jpabook.jpashop.config;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * 쓰레드별 영속성 컨텍스트 통계 집계
+ * hibernate.generate_statistics 의 Statistics는 애플리케이션 전체 누적값이라 동시에 들어온 요청끼리 구분이 안 된다.
+ * 그래서 세션 이벤트(PersistenceContextSessionListener)와 로딩 이벤트를 요청 쓰레드의 구간에 직접 더한다.
+ * start/stop 사용법은 QueryCounter와 같다.
+ */
+public abstract class PersistenceContextCounter {
+
+    private static final ThreadLocal<Deque<PersistenceContextStats>> scopes = new ThreadLocal<>();
+
+    public static PersistenceContextStats start() {
+        Deque<PersistenceContextStats> stack = scopes.get();
+        if (stack == null) {
+            stack = new ArrayDeque<>();
+            scopes.set(stack);
+        }
+        PersistenceContextStats stats = new PersistenceContextStats();
+        stack.push(stats);
+        return stats;
+    }
+
+    public static PersistenceContextStats stop() {
+        Deque<PersistenceContextStats> stack = scopes.get();
+        PersistenceContextStats stats = stack.pop();
+        if (stack.isEmpty()) {
+            scopes.remove();
+        }
+        return stats;
+    }
+
+    static boolean isActive() {
+        return scopes.get() != null;
+    }
+
+    static void entityLoaded() {
+        record(PersistenceContextStats::entityLoaded);
+    }
+
+    static void flushed(long nanos, int entities) {
+        record(stats -> stats.flushed(nanos, entities));
+    }
+
+    static void dirtyChecked(long nanos) {
+        record(stats -> stats.dirtyChecked(nanos));
+    }
+
+    private static void record(Consumer<PersistenceContextStats> event) {
+        Deque<PersistenceContextStats> stack = scopes.get();
+        if (stack != null) {
+            stack.forEach(event);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package jpabook.jpashop.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/persistencecontext
+ * 컨트롤러 메서드별 요청당 SQL 수, 로딩 엔티티 수, 플러시, 변경 감지 시간을 한 번에 보여준다.
+ * 요청당 최대 로딩 엔티티 수가 많은 순으로 정렬되어 있어 엔티티를 수천 개씩 올리는 API를 바로 찾을 수 있다.
+ */
+@Component
+@Endpoint(id = "persistencecontext")
+@RequiredArgsConstructor
+public class PersistenceContextEndpoint {
+
+    private final MeterRegistry meterRegistry;
+
+    @ReadOperation
+    public List<HandlerStats> handlers() {
+        return meterRegistry.find("jpashop.request.entities.loaded").summaries().stream()
+                .map(this::handlerStats)
+                .sorted(Comparator.comparingDouble(HandlerStats::getMaxEntitiesLoaded).reversed())
+                .toList();
+    }
+
+    private HandlerStats handlerStats(DistributionSummary entitiesLoaded) {
+        String handler = entitiesLoaded.getId().getTag("handler");
+        DistributionSummary queries = meterRegistry.find("jpashop.request.queries").tag("handler", handler).summary();
+        DistributionSummary flushes = meterRegistry.find("jpashop.request.flushes").tag("handler", handler).summary();
+        Timer flush = meterRegistry.find("jpashop.request.flush").tag("handler", handler).timer();
+        Timer dirtyCheck = meterRegistry.find("jpashop.request.dirty.check").tag("handler", handler).timer();
+        return new HandlerStats(handler,
+                entitiesLoaded.count(),
+                queries == null ? 0 : queries.mean(),
+                entitiesLoaded.mean(),
+                entitiesLoaded.max(),
+                flushes == null ? 0 : flushes.mean(),
+                flush == null ? 0 : flush.mean(TimeUnit.MILLISECONDS),
+                dirtyCheck == null ? 0 : dirtyCheck.mean(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 평균, 최대는 모두 요청 1건 기준 (최대는 최근 몇 분 동안의 값)
+     */
+    @Data
+    @AllArgsConstructor
+    public static class HandlerStats {
+        private String handler;
+        private long requests;
+        private double meanQueries;
+        private double meanEntitiesLoaded;
+        private double maxEntitiesLoaded;
+        private double meanFlushes;
+        private double meanFlushMillis;
+        private double meanDirtyCheckMillis;
+    }
+}
@@ -0,0 +1,72 @@
+package jpabook.jpashop.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP 요청마다 영속성 컨텍스트 통계를 컨트롤러 메서드별로 기록한다 (handler=OrderApiController.ordersV3)
+ * - jpashop.request.entities.loaded : 요청당 영속성 컨텍스트에 올린 엔티티 수
+ * - jpashop.request.flushes : 요청당 플러시 횟수
+ * - jpashop.request.flush : 요청당 플러시에 걸린 시간
+ * - jpashop.request.dirty.check : 요청당 변경 감지에 걸린 시간
+ * 한 요청에서 jpashop.persistence-context.warn-entities 개 이상 읽으면 로그를 남긴다.
+ */
+@Slf4j
+@Component
+public class PersistenceContextInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = PersistenceContextInterceptor.class.getName() + ".scope";
+
+    private final MeterRegistry meterRegistry;
+    private final long warnEntities;
+
+    public PersistenceContextInterceptor(MeterRegistry meterRegistry,
+                                         @Value("${jpashop.persistence-context.warn-entities:1000}") long warnEntities) {
+        this.meterRegistry = meterRegistry;
+        this.warnEntities = warnEntities;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            PersistenceContextCounter.start();
+            request.setAttribute(SCOPE_ATTRIBUTE, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(SCOPE_ATTRIBUTE) == null) {
+            return;
+        }
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        PersistenceContextStats stats = PersistenceContextCounter.stop();
+
+        Tags tags = Tags.of("handler", QueryCountInterceptor.handlerName((HandlerMethod) handler));
+        meterRegistry.summary("jpashop.request.entities.loaded", tags).record(stats.getEntitiesLoaded());
+        meterRegistry.summary("jpashop.request.flushes", tags).record(stats.getFlushes());
+        meterRegistry.timer("jpashop.request.flush", tags).record(stats.getFlushNanos(), TimeUnit.NANOSECONDS);
+        meterRegistry.timer("jpashop.request.dirty.check", tags).record(stats.getDirtyCheckNanos(), TimeUnit.NANOSECONDS);
+        if (stats.getEntitiesLoaded() >= warnEntities) {
+            log.warn("too many entities loaded in {} {}: {}", request.getMethod(), request.getRequestURI(), stats);
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(SCOPE_ATTRIBUTE) != null) {
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            PersistenceContextCounter.stop();
+        }
+    }
+}
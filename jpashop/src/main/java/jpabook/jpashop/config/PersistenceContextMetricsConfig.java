@@ -0,0 +1,36 @@
+package jpabook.jpashop.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 요청별 영속성 컨텍스트 통계를 모으는 하이버네이트 리스너 등록
+ * - 세션 이벤트(플러시, 변경 감지) : hibernate.session.events.auto 로 세션마다 PersistenceContextSessionListener 생성
+ * - 엔티티 로딩 : POST_LOAD 이벤트 리스너
+ * 모은 값은 PersistenceContextInterceptor가 컨트롤러 메서드별 메트릭으로 남기고 /actuator/persistencecontext 에서 모아 본다.
+ */
+@Configuration
+public class PersistenceContextMetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer persistenceContextSessionListener() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, PersistenceContextSessionListener.class.getName());
+    }
+
+    @Bean
+    public PostLoadEventListener persistenceContextLoadListener(EntityManagerFactory entityManagerFactory) {
+        PostLoadEventListener listener = event -> PersistenceContextCounter.entityLoaded();
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, listener);
+        return listener;
+    }
+}
@@ -0,0 +1,50 @@
+package jpabook.jpashop.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * 세션마다 하나씩 만들어지는 하이버네이트 세션 이벤트 리스너 (hibernate.session.events.auto)
+ * 플러시와 엔티티별 변경 감지에 걸린 시간을 재서 PersistenceContextCounter에 넘긴다.
+ * 집계 구간이 없는 쓰레드(배치, 스케줄러 등)에서는 시간을 재지 않는다.
+ */
+public class PersistenceContextSessionListener implements SessionEventListener {
+
+    private long flushStart;
+    private long dirtyCalculationStart;
+
+    @Override
+    public void flushStart() {
+        flushStart = PersistenceContextCounter.isActive() ? System.nanoTime() : 0;
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        if (flushStart != 0) {
+            PersistenceContextCounter.flushed(System.nanoTime() - flushStart, numberOfEntities);
+            flushStart = 0;
+        }
+    }
+
+    @Override
+    public void partialFlushStart() {
+        flushStart();
+    }
+
+    @Override
+    public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+        flushEnd(numberOfEntities, numberOfCollections);
+    }
+
+    @Override
+    public void dirtyCalculationStart() {
+        dirtyCalculationStart = PersistenceContextCounter.isActive() ? System.nanoTime() : 0;
+    }
+
+    @Override
+    public void dirtyCalculationEnd(boolean dirty) {
+        if (dirtyCalculationStart != 0) {
+            PersistenceContextCounter.dirtyChecked(System.nanoTime() - dirtyCalculationStart);
+            dirtyCalculationStart = 0;
+        }
+    }
+}
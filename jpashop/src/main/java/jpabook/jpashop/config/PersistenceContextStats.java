@@ -0,0 +1,64 @@
+package jpabook.jpashop.config;
+
+/**
+ * 한 구간(HTTP 요청, 테스트 블록)에서 영속성 컨텍스트가 한 일
+ * - entitiesLoaded : DB나 2차 캐시에서 읽어 영속성 컨텍스트에 올린 엔티티 수
+ * - flushes : 플러시 횟수 (JPQL 실행 전 자동 플러시 포함)
+ * - flushedEntities : 플러시 때 변경 감지 대상이 된 관리 엔티티 수의 합
+ * - dirtyChecks : 엔티티별 변경 감지 횟수와 걸린 시간
+ */
+public class PersistenceContextStats {
+
+    private long entitiesLoaded;
+    private long flushes;
+    private long flushNanos;
+    private long flushedEntities;
+    private long dirtyChecks;
+    private long dirtyCheckNanos;
+
+    void entityLoaded() {
+        entitiesLoaded++;
+    }
+
+    void flushed(long nanos, int entities) {
+        flushes++;
+        flushNanos += nanos;
+        flushedEntities += entities;
+    }
+
+    void dirtyChecked(long nanos) {
+        dirtyChecks++;
+        dirtyCheckNanos += nanos;
+    }
+
+    public long getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    public long getFlushNanos() {
+        return flushNanos;
+    }
+
+    public long getFlushedEntities() {
+        return flushedEntities;
+    }
+
+    public long getDirtyChecks() {
+        return dirtyChecks;
+    }
+
+    public long getDirtyCheckNanos() {
+        return dirtyCheckNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "entitiesLoaded=" + entitiesLoaded
+                + ", flushes=" + flushes + " (" + flushNanos / 1_000 + "us, entities=" + flushedEntities + ")"
+                + ", dirtyChecks=" + dirtyChecks + " (" + dirtyCheckNanos / 1_000 + "us)";
+    }
+}
@@ -0,0 +1,49 @@
+package jpabook.jpashop.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 한 구간(HTTP 요청, 트랜잭션, 테스트 블록)에서 실행된 SQL 수
+ * 값만 다른 같은 모양(QueryCounter.normalize)의 SQL끼리 묶어서 센다.
+ */
+public class QueryCount {
+
+    private int total;
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+
+    void add(String shape) {
+        total++;
+        shapes.merge(shape, 1, Integer::sum);
+    }
+
+    void addAll(QueryCount other) {
+        total += other.total;
+        other.shapes.forEach((shape, count) -> shapes.merge(shape, count, Integer::sum));
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public Map<String, Integer> getShapes() {
+        return shapes;
+    }
+
+    /**
+     * threshold번 이상 반복된 SQL 모양. 루프 안에서 지연 로딩이 일어나는 N+1 의심 대상이다.
+     */
+    public Map<String, Integer> suspects(int threshold) {
+        return shapes.entrySet().stream()
+                .filter(e -> e.getValue() >= threshold)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("queries=").append(total);
+        shapes.forEach((shape, count) -> sb.append("\n  ").append(count).append("x ").append(shape));
+        return sb.toString();
+    }
+}
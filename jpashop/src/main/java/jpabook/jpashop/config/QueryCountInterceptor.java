@@ -0,0 +1,69 @@
+package jpabook.jpashop.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Map;
+
+/**
+ * HTTP 요청마다 실행된 SQL 수를 세서 컨트롤러 메서드별로 기록한다
+ * - jpashop.request.queries : 요청당 SQL 수 (handler=OrderApiController.ordersV2)
+ * - jpashop.request.n_plus_one : 같은 모양의 SQL이 QueryCounter.N_PLUS_ONE_THRESHOLD번 이상 반복된 요청 수
+ * OSIV가 켜져 있으면 JSON 변환 중의 지연 로딩도 요청이 끝나기 전에 일어나므로 함께 세어진다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = QueryCountInterceptor.class.getName() + ".scope";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            QueryCounter.start();
+            request.setAttribute(SCOPE_ATTRIBUTE, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(SCOPE_ATTRIBUTE) == null) {
+            return;
+        }
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        QueryCount count = QueryCounter.stop();
+
+        String handlerName = handlerName((HandlerMethod) handler);
+        meterRegistry.summary("jpashop.request.queries", "handler", handlerName).record(count.getTotal());
+        Map<String, Integer> suspects = count.suspects(QueryCounter.N_PLUS_ONE_THRESHOLD);
+        if (!suspects.isEmpty()) {
+            meterRegistry.counter("jpashop.request.n_plus_one", "handler", handlerName).increment();
+            log.warn("N+1 suspect in {} {}: {}", request.getMethod(), request.getRequestURI(), count);
+        }
+    }
+
+    /**
+     * StreamingResponseBody 같은 비동기 처리는 다른 쓰레드에서 이어지므로 여기서 구간만 닫는다
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(SCOPE_ATTRIBUTE) != null) {
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            QueryCounter.stop();
+        }
+    }
+
+    static String handlerName(HandlerMethod handlerMethod) {
+        return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+    }
+}
@@ -0,0 +1,20 @@
+package jpabook.jpashop.config;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy가 감싼 DataSource에서 실행된 모든 SQL을 QueryCounter로 넘긴다
+ * (p6spy-spring-boot-starter가 JdbcEventListener 빈을 찾아서 등록해준다)
+ */
+@Component
+public class QueryCountListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        QueryCounter.record(statementInformation.getSql());
+    }
+}
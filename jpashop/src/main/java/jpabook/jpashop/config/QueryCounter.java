@@ -0,0 +1,115 @@
+package jpabook.jpashop.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 쓰레드별 SQL 실행 수 집계 (QueryCountListener가 p6spy로 실행된 SQL을 넘겨준다)
+ *
+ * - start/stop : 구간을 직접 지정한다. HTTP 요청(QueryCountInterceptor), 테스트(assertMaxQueries)에서 사용하며 중첩할 수 있다.
+ * - 트랜잭션 : 트랜잭션 안에서 실행된 SQL은 트랜잭션 단위로도 따로 모아서, 끝날 때 N+1 의심 SQL이 있으면 로그를 남긴다.
+ */
+@Slf4j
+public abstract class QueryCounter {
+
+    // 한 구간 안에서 같은 모양의 SQL이 이 횟수 이상 실행되면 N+1 의심
+    public static final int N_PLUS_ONE_THRESHOLD = 5;
+
+    private static final ThreadLocal<Deque<QueryCount>> scopes = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    // 반복 그룹 대신 문자 클래스로 써야 파라미터가 수만 개인 IN 목록에서도 StackOverflowError가 나지 않는다
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?[\\s,?]*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public static QueryCount start() {
+        Deque<QueryCount> stack = scopes.get();
+        if (stack == null) {
+            stack = new ArrayDeque<>();
+            scopes.set(stack);
+        }
+        QueryCount count = new QueryCount();
+        stack.push(count);
+        return count;
+    }
+
+    public static QueryCount stop() {
+        Deque<QueryCount> stack = scopes.get();
+        QueryCount count = stack.pop();
+        if (stack.isEmpty()) {
+            scopes.remove();
+        }
+        return count;
+    }
+
+    /**
+     * 다른 쓰레드에서 대신 실행한 SQL을 이 쓰레드의 구간과 트랜잭션에 더한다 (ReadOnlyQueryExecutor)
+     */
+    public static void merge(QueryCount count) {
+        Deque<QueryCount> stack = scopes.get();
+        if (stack != null) {
+            for (QueryCount scope : stack) {
+                scope.addAll(count);
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionCount().addAll(count);
+        }
+    }
+
+    static void record(String sql) {
+        Deque<QueryCount> stack = scopes.get();
+        boolean transactional = TransactionSynchronizationManager.isSynchronizationActive();
+        if (stack == null && !transactional) {
+            return;
+        }
+
+        String shape = normalize(sql);
+        if (stack != null) {
+            for (QueryCount count : stack) {
+                count.add(shape);
+            }
+        }
+        if (transactional) {
+            transactionCount().add(shape);
+        }
+    }
+
+    /**
+     * 리터럴 값과 IN 목록의 길이를 지워서 값만 다른 SQL을 같은 모양으로 만든다
+     */
+    public static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private static QueryCount transactionCount() {
+        QueryCount count = (QueryCount) TransactionSynchronizationManager.getResource(QueryCounter.class);
+        if (count != null) {
+            return count;
+        }
+        QueryCount newCount = new QueryCount();
+        String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+        TransactionSynchronizationManager.bindResource(QueryCounter.class, newCount);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(QueryCounter.class);
+                Map<String, Integer> suspects = newCount.suspects(N_PLUS_ONE_THRESHOLD);
+                if (!suspects.isEmpty()) {
+                    log.warn("N+1 suspect in transaction {}: {}", transactionName, newCount);
+                }
+            }
+        });
+        return newCount;
+    }
+}
@@ -0,0 +1,37 @@
+package jpabook.jpashop.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.util.StringUtils;
+
+/**
+ * JpaTransactionManager가 ReadOnlySessionJpaDialect를 쓰도록 JpaVendorAdapter를 바꿔 등록
+ * 스프링 부트가 만드는 JpaVendorAdapter와 같은 spring.jpa 설정을 적용한다.
+ */
+@Configuration
+public class ReadOnlySessionConfig {
+
+    @Bean
+    public JpaVendorAdapter jpaVendorAdapter(JpaProperties properties) {
+        ReadOnlySessionJpaDialect jpaDialect = new ReadOnlySessionJpaDialect();
+        HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter() {
+            @Override
+            public HibernateJpaDialect getJpaDialect() {
+                return jpaDialect;
+            }
+        };
+        adapter.setShowSql(properties.isShowSql());
+        if (properties.getDatabase() != null) {
+            adapter.setDatabase(properties.getDatabase());
+        }
+        if (StringUtils.hasText(properties.getDatabasePlatform())) {
+            adapter.setDatabasePlatform(properties.getDatabasePlatform());
+        }
+        adapter.setGenerateDdl(properties.isGenerateDdl());
+        return adapter;
+    }
+}
@@ -0,0 +1,81 @@
+package jpabook.jpashop.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * @Transactional(readOnly = true)이면 세션을 기본 읽기 전용으로 바꾸는 JpaDialect
+ *
+ * 스프링의 HibernateJpaDialect는 읽기 전용 트랜잭션에서 플러시 모드를 MANUAL로 바꾸지만,
+ * 세션 기본 읽기 전용(setDefaultReadOnly)은 트랜잭션이 EntityManager를 새로 만들었을 때만 적용한다.
+ * OSIV가 켜져 있으면 요청마다 EntityManager가 먼저 열려 있으므로 readOnly 서비스 메서드에서도
+ * 조회한 엔티티마다 변경 감지용 스냅샷(필드 값 복사본)을 만든다. 여기서는 그 경우에도 읽기 전용으로 바꾼다.
+ *
+ * 읽기 전용 트랜잭션에서 읽은 엔티티는 트랜잭션이 끝나도 세션에 읽기 전용으로 남는다.
+ * 같은 요청에서 이어지는 쓰기 트랜잭션이 그 엔티티를 다시 조회해 수정하면 변경이 무시되므로,
+ * 쓰기 트랜잭션을 시작할 때 읽기 전용 엔티티를 다시 수정 가능(그 시점 값으로 스냅샷)하게 돌려놓는다.
+ */
+public class ReadOnlySessionJpaDialect extends HibernateJpaDialect {
+
+    // 읽기 전용 엔티티가 남아 있을 수 있는 세션
+    private final Set<SessionImplementor> readOnlySessions = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        SessionImplementor session = getSession(entityManager);
+        if (!definition.isReadOnly()) {
+            if (readOnlySessions.remove(session)) {
+                makeModifiable(session);
+            }
+            return transactionData;
+        }
+        if (session.isDefaultReadOnly()) {
+            return transactionData;
+        }
+        session.setDefaultReadOnly(true);
+        readOnlySessions.add(session);
+        return new ReadOnlySessionData(transactionData, session);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReadOnlySessionData readOnlySessionData) {
+            readOnlySessionData.session.setDefaultReadOnly(false);
+            super.cleanupTransaction(readOnlySessionData.transactionData);
+            return;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private static void makeModifiable(SessionImplementor session) {
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getValue().getStatus() == Status.READ_ONLY) {
+                session.setReadOnly(entry.getKey(), false);
+            }
+        }
+    }
+
+    private static class ReadOnlySessionData {
+        private final Object transactionData;
+        private final SessionImplementor session;
+
+        private ReadOnlySessionData(Object transactionData, SessionImplementor session) {
+            this.transactionData = transactionData;
+            this.session = session;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package jpabook.jpashop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * 읽기 전용 트랜잭션은 복제본(replica)으로, 나머지는 원본(primary)으로 보내는 DataSource
+ *
+ * 트랜잭션 매니저는 트랜잭션을 시작할 때 커넥션부터 얻고 readOnly 여부는 그 다음에 표시하므로,
+ * LazyConnectionDataSourceProxy로 실제 커넥션을 첫 SQL 실행 시점까지 미뤄야 readOnly를 보고 고를 수 있다.
+ *
+ * 복제본은 checkReplicas()가 주기적으로 lag 쿼리를 실행해서 상태를 갱신한다.
+ * 접속이 안 되거나 지연이 max-lag-seconds를 넘은 복제본은 건너뛰고, 쓸 수 있는 복제본이 없으면 원본으로 보낸다.
+ * - jpashop.datasource.route{target} : 대상별 커넥션 획득 수
+ * - jpashop.datasource.route.fallback : 복제본이 없어서 원본으로 보낸 읽기 전용 커넥션 수
+ * - jpashop.datasource.replica.lag{target}, jpashop.datasource.replica.available{target} : 마지막 점검 결과
+ */
+@Slf4j
+public class ReplicationRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Map<String, Counter> routeCounters = new HashMap<>();
+    private final Counter fallbackCounter;
+
+    public ReplicationRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaDataSources,
+                                        String lagQuery, double maxLagSeconds, MeterRegistry meterRegistry) {
+        this(primary, replicaDataSources, lagQuery, maxLagSeconds, meterRegistry, (name, dataSource) -> dataSource);
+    }
+
+    /**
+     * @param decorator 대상 커넥션 풀을 감싸는 함수 (p6spy 등). 이 DataSource 바깥을 감싸면 readOnly가 정해지기 전에 커넥션을 얻어버린다.
+     */
+    public ReplicationRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaDataSources,
+                                        String lagQuery, double maxLagSeconds, MeterRegistry meterRegistry,
+                                        BiFunction<String, DataSource, DataSource> decorator) {
+        this.primary = primary;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, decorator.apply(PRIMARY, primary));
+        routeCounters.put(PRIMARY, meterRegistry.counter("jpashop.datasource.route", "target", PRIMARY));
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicaDataSources.get(i));
+            replicas.add(replica);
+            targets.put(replica.name, decorator.apply(replica.name, replica.dataSource));
+            routeCounters.put(replica.name, meterRegistry.counter("jpashop.datasource.route", "target", replica.name));
+            Gauge.builder("jpashop.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("target", replica.name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("jpashop.datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .tag("target", replica.name)
+                    .register(meterRegistry);
+        }
+        fallbackCounter = meterRegistry.counter("jpashop.datasource.route.fallback");
+
+        Router router = new Router();
+        router.setTargetDataSources(targets);
+        router.setDefaultTargetDataSource(targets.get(PRIMARY));
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+    }
+
+    /**
+     * 복제본마다 lag 쿼리를 실행해 지연(초)을 확인한다
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasAvailable = replica.available;
+            try (Connection con = replica.dataSource.getConnection();
+                 Statement stmt = con.createStatement()) {
+                stmt.setQueryTimeout(1);
+                try (ResultSet rs = stmt.executeQuery(lagQuery)) {
+                    replica.lagSeconds = rs.next() ? rs.getDouble(1) : Double.NaN;
+                }
+                replica.available = replica.lagSeconds <= maxLagSeconds;
+            } catch (SQLException e) {
+                replica.lagSeconds = Double.NaN;
+                replica.available = false;
+            }
+            if (wasAvailable != replica.available) {
+                log.warn("{} {}. lag={}s", replica.name, replica.available ? "is back" : "is excluded from reads", replica.lagSeconds);
+            }
+        }
+    }
+
+    /**
+     * 기본 autoCommit, 격리 수준은 라우팅을 거치지 않고 원본에서 읽는다 (처음 조회가 복제본으로 가거나 라우팅 수에 섞이지 않도록)
+     */
+    @Override
+    public void checkDefaultConnectionProperties() {
+        if (defaultAutoCommit() != null && defaultTransactionIsolation() != null) {
+            return;
+        }
+        try (Connection con = primary.getConnection()) {
+            checkDefaultConnectionProperties(con);
+        } catch (SQLException e) {
+            log.debug("Could not retrieve default auto-commit and transaction isolation settings", e);
+        }
+    }
+
+    String determineTarget() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return route(PRIMARY);
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (replica.available) {
+                return route(replica.name);
+            }
+        }
+        if (!replicas.isEmpty()) {
+            fallbackCounter.increment();
+        }
+        return route(PRIMARY);
+    }
+
+    private String route(String target) {
+        routeCounters.get(target).increment();
+        return target;
+    }
+
+    @Override
+    public void close() {
+        primary.close();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private class Router extends AbstractRoutingDataSource {
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return determineTarget();
+        }
+    }
+
+    private static class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        // 처음 점검하기 전까지는 쓰지 않는다
+        private volatile boolean available;
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -14,13 +14,30 @@ import java.util.List;
 
 @Entity
 @Table(name = "orders")
+// 주문 검색(OrderRepository.findAll) 쿼리. 검색 조건 조합마다 하나씩 4가지 모양만 있고 값은 모두 파라미터로 바인딩한다.
+// 이름 있는 쿼리는 로딩 시점에 미리 파싱해두므로 호출마다 JPQL을 다시 파싱하지 않고, 문법 오류도 로딩 시점에 잡힌다.
+@NamedQueries({
+        @NamedQuery(name = "Order.search",
+                query = "select o from Order o join o.member m"),
+        @NamedQuery(name = "Order.searchByStatus",
+                query = "select o from Order o join o.member m where o.status = :status"),
+        @NamedQuery(name = "Order.searchByMemberName",
+                query = "select o from Order o join o.member m where m.name like :name"),
+        @NamedQuery(name = "Order.searchByStatusAndMemberName",
+                query = "select o from Order o join o.member m where o.status = :status and m.name like :name")
+})
 @Getter @Setter
 // 만들어둔 생성 메소드만 사용할 수 있도록 기본 생성자 제한
 //protected Order() {}  이 코드 대신 @NoArgsConstructor(access = AccessLevel.PROTECTED) 작성
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order {
 
-    @Id @GeneratedValue
+    /**
+     * 시퀀스를 한 번 호출할 때 allocationSize만큼 id를 미리 받아와 메모리에서 나눠준다(pooled).
+     * jdbc batch_size와 맞춰두면 insert 배치 하나에 시퀀스 호출 한 번이면 충분하다.
+     */
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq_generator")
+    @SequenceGenerator(name = "orders_seq_generator", sequenceName = "orders_seq", allocationSize = 100)
     @Column(name = "order_id")
     private Long id;
 
@@ -83,14 +100,22 @@ public class Order {
      * 주문 취소
      */
     public void cancel() {
+        markCanceled();
+        for (OrderItem orderItem : orderItems) {
+            orderItem.cancel();
+        }
+    }
+
+    /**
+     * 재고 복구 없이 주문 상태만 취소로 변경
+     * 재고를 엔티티가 아닌 update 쿼리 등으로 직접 되돌리는 경우에 사용한다.
+     */
+    public void markCanceled() {
         if(delivery.getStatus() == DeliveryStatus.COMP) {
             throw new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다.");
         }
 
         this.setStatus(OrderStatus.CANCEL);
-        for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();
-        }
     }
 
     //==조회 로직==//
@@ -16,7 +16,8 @@ import lombok.Setter;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class OrderItem {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq_generator")
+    @SequenceGenerator(name = "order_item_seq_generator", sequenceName = "order_item_seq", allocationSize = 100)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -35,12 +36,21 @@ public class OrderItem {
 
     //==생성 메소드==//
     public static OrderItem createOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = createReservedOrderItem(item, orderPrice, count);
+
+        item.decreaseStock(count);
+        return orderItem;
+    }
+
+    /**
+     * 재고 차감 없이 주문상품만 생성
+     * 재고를 엔티티가 아닌 update 쿼리 등으로 이미 차감한 경우에 사용한다.
+     */
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
         OrderItem orderItem = new OrderItem();
         orderItem.setItem(item);
         orderItem.setOrderPrice(orderPrice);
         orderItem.setCount(count);
-
-        item.decreaseStock(count);
         return orderItem;
     }
 
@@ -0,0 +1,34 @@
+package jpabook.jpashop.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 아직 item 테이블에 반영되지 않은 재고 증감 기록(ledger 모드 전용)
+ * 주문 트랜잭션에서는 item row를 수정하지 않고 이 테이블에 insert만 하므로 인기 상품 row에 락 경합이 없다.
+ * StockLedger가 주기적으로 모아서 item 테이블에 반영한 뒤 삭제한다.
+ * 서버가 죽어도 커밋된 주문의 증감은 여기에 남아 있으므로 재시작 시 그대로 반영하면 된다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class StockJournal {
+
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_journal_seq_generator")
+    @SequenceGenerator(name = "stock_journal_seq_generator", sequenceName = "stock_journal_seq", allocationSize = 100)
+    @Column(name = "stock_journal_id")
+    private Long id;
+
+    // 연관관계 대신 id만 들고 있어 Item을 조회할 필요가 없다.
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    private int quantity;   // 재고 증감량. 주문은 음수, 취소는 양수
+
+    public StockJournal(Long itemId, int quantity) {
+        this.itemId = itemId;
+        this.quantity = quantity;
+    }
+}
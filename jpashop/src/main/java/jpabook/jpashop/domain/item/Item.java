@@ -5,6 +5,8 @@ import jpabook.jpashop.domain.Category;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,6 +15,8 @@ import java.util.List;
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "dtype")    // 싱글 테이블 전략으로 하나의 테이블에 타입을 나눔. 여기서는 추상클래스의 구현체로써 각 타입마다 속성을 달리했음
 @Getter @Setter
+// 2차 캐시. 주문/화면마다 조회되므로 캐시하고, 변경감지/벌크 update 시 Hibernate가 캐시를 갱신·무효화한다.
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")
 public abstract class Item {
 
     @Id @GeneratedValue
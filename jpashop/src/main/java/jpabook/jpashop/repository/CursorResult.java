@@ -0,0 +1,48 @@
+package jpabook.jpashop.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 커서(keyset) 페이징 결과
+ * nextCursor는 이번 페이지의 마지막 id를 인코딩한 값으로, 클라이언트는 내용을 해석하지 말고
+ * 다음 요청의 after 파라미터로 그대로 넘겨주면 된다. 더 이상 데이터가 없으면 null.
+ */
+@Data
+@AllArgsConstructor
+public class CursorResult<T> {
+    private T data;
+    private String nextCursor;
+
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 커서가 없으면 처음부터 조회하도록 0을 반환
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다. cursor=" + cursor, e);
+        }
+    }
+
+    /**
+     * 조회 개수가 limit보다 적으면 마지막 페이지이므로 다음 커서가 없다.
+     */
+    public static String next(int size, int limit, Long lastId) {
+        if (size < limit || lastId == null) {
+            return null;
+        }
+        return encode(lastId);
+    }
+}
@@ -5,6 +5,7 @@ import jpabook.jpashop.domain.item.Item;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -35,4 +36,58 @@ public class ItemRepository {
         return em.createQuery("select i from Item i", Item.class)
                 .getResultList();
     }
+
+    public List<Item> findAllById(Collection<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * 재고 원자적 차감
+     * 조회 후 엔티티 값을 바꾸는 방식(read-modify-write)은 동시 주문 시 갱신 손실이 생기거나
+     * 트랜잭션 내내 row lock을 잡고 기다리게 된다.
+     * 조건부 update 한 번으로 차감하므로 재고가 부족하면 아무것도 바꾸지 않고 0을 반환한다.
+     * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 이미 조회해둔 Item의 stockQuantity는 바뀌지 않는다.
+     */
+    public int decreaseStock(Long itemId, int quantity) {
+        return em.createQuery("update Item i" +
+                        " set i.stockQuantity = i.stockQuantity - :quantity" +
+                        " where i.id = :itemId" +
+                        " and i.stockQuantity >= :quantity")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+    }
+
+    /**
+     * 영속성 컨텍스트에 이미 올라온 Item과 상관없이 DB의 현재 재고를 읽는다
+     */
+    public int findStockQuantity(Long itemId) {
+        return em.createQuery("select i.stockQuantity from Item i where i.id = :itemId", Integer.class)
+                .setParameter("itemId", itemId)
+                .getSingleResult();
+    }
+
+    /**
+     * 재고 컬럼은 건드리지 않고 이름, 가격만 바꾼다 (ledger 모드 관리자 수정)
+     */
+    public int updateNameAndPrice(Long itemId, String name, int price) {
+        return em.createQuery("update Item i" +
+                        " set i.name = :name, i.price = :price" +
+                        " where i.id = :itemId")
+                .setParameter("name", name)
+                .setParameter("price", price)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+    }
+
+    public int increaseStock(Long itemId, int quantity) {
+        return em.createQuery("update Item i" +
+                        " set i.stockQuantity = i.stockQuantity + :quantity" +
+                        " where i.id = :itemId")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+    }
 }
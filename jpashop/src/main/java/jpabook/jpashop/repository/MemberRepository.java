@@ -4,9 +4,12 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jpabook.jpashop.domain.Member;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
@@ -22,6 +25,15 @@ public class MemberRepository {
         em.persist(member);
     }
 
+    /**
+     * unique 제약(uk_member_name) 위반을 트랜잭션 커밋까지 미루지 않고 바로 확인하기 위해 flush 까지 한다.
+     * 위반 시 @Repository 예외 변환으로 DataIntegrityViolationException이 던져진다.
+     */
+    public void saveAndFlush(Member member) {
+        em.persist(member);
+        em.flush();
+    }
+
     public Member findOne(Long id) {
         return em.find(Member.class, id);
     }
@@ -32,9 +44,24 @@ public class MemberRepository {
                 .getResultList();
     }
 
+    public List<Member> findAllById(Collection<Long> ids) {
+        return em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
     public List<Member> findByName(String name) {
         return em.createQuery("select m from Member m where m.name = :name", Member.class)
                 .setParameter("name", name) // jpql 문에 name 바인딩 시키기 위한 메소드
                 .getResultList();
     }
+
+    /**
+     * 트랜잭션 안에서 사용하고 다 쓰면 닫아야 한다
+     */
+    public Stream<String> streamAllNames() {
+        return em.createQuery("select m.name from Member m", String.class)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, 1000)
+                .getResultStream();
+    }
 }
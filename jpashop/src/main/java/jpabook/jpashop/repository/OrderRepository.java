@@ -3,10 +3,11 @@ package jpabook.jpashop.repository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
 
 import java.util.List;
 
@@ -24,44 +25,46 @@ public class OrderRepository {
         return em.find(Order.class, id);
     }
 
+    /**
+     * 주문 검색 결과는 쿼리 캐시(default-query-results-region)에 짧게 캐시한다.
+     * 캐시 키는 쿼리 + 파라미터(주문 상태, 정규화한 회원 이름)이고,
+     * 주문 생성/취소 등으로 orders, member 테이블이 바뀌면 Hibernate가 해당 결과를 자동으로 무효화한다.
+     */
     public List<Order> findAll(OrderSearch orderSearch) {
+        OrderStatus status = orderSearch.getOrderStatus();
+        String memberName = orderSearch.normalizedMemberName();
 
-        String jpql = "select o from Order o join o.member m";
-        boolean isFirstCondition = true;
+        TypedQuery<Order> query = em.createNamedQuery(searchQueryName(status, memberName), Order.class)
+                .setMaxResults(1000)
+                .setHint(AvailableHints.HINT_CACHEABLE, true);
 
         //주문 상태 검색
-        if (orderSearch.getOrderStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-            jpql += " o.status = :status";
+        if (status != null) {
+            query.setParameter("status", status);
         }
-
         //회원 이름 검색
-        if (StringUtils.hasText(orderSearch.getMemberName())) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-            jpql += " m.name like :name";
+        if (memberName != null) {
+            query.setParameter("name", memberName);
         }
 
-        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
-                .setMaxResults(1000);
+        return query.getResultList();
+    }
 
-        if (orderSearch.getOrderStatus() != null) {
-            query = query.setParameter("status", orderSearch.getOrderStatus());
+    /**
+     * 검색 조건 조합에 맞는 이름 있는 쿼리(Order 엔티티에 정의)
+     * 예전처럼 JPQL 문자열을 이어붙이지 않으므로 쿼리 모양이 4가지로 고정되고 쿼리 플랜 캐시를 그대로 재사용한다.
+     */
+    private static String searchQueryName(OrderStatus status, String memberName) {
+        if (status != null && memberName != null) {
+            return "Order.searchByStatusAndMemberName";
         }
-        if (StringUtils.hasText(orderSearch.getMemberName())) {
-            query = query.setParameter("name", orderSearch.getMemberName());
+        if (status != null) {
+            return "Order.searchByStatus";
         }
-
-        return query.getResultList();
+        if (memberName != null) {
+            return "Order.searchByMemberName";
+        }
+        return "Order.search";
     }
 
     /**
@@ -119,4 +122,20 @@ public class OrderRepository {
                 .setMaxResults(limit)
                 .getResultList();
     }
+
+    /**
+     * 커서(keyset, seek) 페이징
+     * offset 페이징은 DB가 offset만큼 읽고 버려야 해서 뒤 페이지로 갈수록 느려진다.
+     * 마지막으로 조회한 id보다 큰 것부터 limit개만 PK 인덱스로 읽으므로 몇 번째 페이지든 비용이 같다.
+     */
+    public List<Order> findAllWithMemberDeliveryAfter(Long cursor, int limit) {
+        return em.createQuery("select o from Order o" +
+                " join fetch o.member m" +
+                " join fetch o.delivery d" +
+                " where o.id > :cursor" +
+                " order by o.id", Order.class)
+                .setParameter("cursor", cursor)
+                .setMaxResults(limit)
+                .getResultList();
+    }
 }
@@ -3,10 +3,19 @@ package jpabook.jpashop.repository;
 import jpabook.jpashop.domain.OrderStatus;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.util.StringUtils;
 
 @Getter @Setter
 public class OrderSearch {
 
     private String memberName;
     private OrderStatus orderStatus;
+
+    /**
+     * 앞뒤 공백이나 빈 문자열 때문에 같은 검색이 서로 다른 쿼리 캐시 키가 되지 않도록 정규화한 회원 이름
+     * 검색하지 않는 경우 null
+     */
+    public String normalizedMemberName() {
+        return StringUtils.hasText(memberName) ? memberName.trim() : null;
+    }
 }
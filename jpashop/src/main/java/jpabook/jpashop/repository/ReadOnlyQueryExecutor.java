@@ -0,0 +1,167 @@
+package jpabook.jpashop.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.config.QueryCount;
+import jpabook.jpashop.config.QueryCounter;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 조회 쿼리를 별도 쓰레드에서 동시에 실행
+ * 작업마다 EntityManager를 새로 열어(기본 읽기 전용) 쿼리 하나를 실행하고 닫는다.
+ * 요청 쓰레드의 트랜잭션, 영속성 컨텍스트와는 무관하므로 DTO 조회처럼 엔티티를 돌려주지 않는 쿼리에만 쓴다.
+ *
+ * 작업 쓰레드가 동시에 잡는 커넥션 수는 세마포어로 parallelism, 커넥션 풀 크기 - 1 (풀이 1이면 1) 을 넘지 않게 한다.
+ * 허가는 작업 쓰레드가 EntityManager를 열기 직전에 기다려서 받으므로, 넘긴 작업은 모두 작업 쓰레드에서 나눠 실행된다.
+ * 대기열이 차면 submit()을 호출한 쓰레드가 자리가 날 때까지 기다린다.
+ * 호출하는 쪽은 커넥션을 잡지 않은 채(트랜잭션 밖에서) submit, join 해야 한다. 커넥션을 잡고 기다리면 그만큼 풀이 묶인다.
+ *
+ * 실행 결과와 함께 실행된 SQL 수를 요청 쓰레드의 QueryCounter 구간으로 넘겨준다.
+ */
+@Component
+public class ReadOnlyQueryExecutor {
+
+    private final EntityManagerFactory emf;
+    private final Semaphore connections;
+    private final ThreadPoolExecutor threadPool;
+    private final ExecutorService executor;
+
+    public ReadOnlyQueryExecutor(EntityManagerFactory emf,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${jpashop.query-executor.parallelism:4}") int parallelism,
+                                 @Value("${jpashop.query-executor.queue-capacity:64}") int queueCapacity,
+                                 @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize) {
+        this.emf = emf;
+        this.connections = new Semaphore(Math.max(1, Math.min(parallelism, maximumPoolSize - 1)));
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.threadPool = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "query-executor-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                ReadOnlyQueryExecutor::waitForQueue);
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, threadPool, "jpashop.query.executor");
+    }
+
+    /**
+     * 요청 쓰레드에서 바로 실행하되 EntityManager를 따로 열고 닫아서 끝나면 커넥션을 풀에 돌려준다.
+     * 작업을 나눠 넘기기 전에 루트 쿼리를 읽을 때 쓴다.
+     */
+    public <T> T execute(Function<EntityManager, T> query) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.unwrap(Session.class).setDefaultReadOnly(true);
+            return query.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * 결과는 반드시 요청 쓰레드에서 QueryTask.join()으로 받는다
+     */
+    public <T> QueryTask<T> submit(Function<EntityManager, T> query) {
+        return new QueryTask<>(executor.submit(() -> {
+            connections.acquire();
+            QueryCount count = QueryCounter.start();
+            try {
+                EntityManager em = emf.createEntityManager();
+                try {
+                    em.unwrap(Session.class).setDefaultReadOnly(true);
+                    return new Result<>(query.apply(em), count);
+                } finally {
+                    em.close();
+                }
+            } finally {
+                QueryCounter.stop();
+                connections.release();
+            }
+        }));
+    }
+
+    /**
+     * 결과를 tasks 순서대로 기다린다. 하나라도 실패하면 남은 작업을 취소한다.
+     */
+    public <T> List<T> joinAll(List<QueryTask<T>> tasks) {
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (QueryTask<T> task : tasks) {
+                results.add(task.join());
+            }
+            return results;
+        } catch (RuntimeException e) {
+            tasks.forEach(QueryTask::cancel);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPool.shutdown();
+    }
+
+    // 대기열이 차면 버리지 않고 자리가 날 때까지 호출한 쓰레드를 세워둔다
+    private static void waitForQueue(Runnable runnable, ThreadPoolExecutor threadPool) {
+        if (threadPool.isShutdown()) {
+            throw new RejectedExecutionException("query executor has been shut down");
+        }
+        try {
+            threadPool.getQueue().put(runnable);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(e);
+        }
+    }
+
+    private static class Result<T> {
+        private final T value;
+        private final QueryCount count;
+
+        private Result(T value, QueryCount count) {
+            this.value = value;
+            this.count = count;
+        }
+    }
+
+    public static class QueryTask<T> {
+
+        private final Future<Result<T>> future;
+
+        private QueryTask(Future<Result<T>> future) {
+            this.future = future;
+        }
+
+        public T join() {
+            try {
+                Result<T> result = future.get();
+                QueryCounter.merge(result.count);
+                return result.value;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        public void cancel() {
+            future.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.StockJournal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class StockJournalRepository {
+
+    private final EntityManager em;
+
+    public void save(StockJournal stockJournal) {
+        em.persist(stockJournal);
+    }
+
+    public List<StockJournal> findOldest(int limit) {
+        return em.createQuery("select j from StockJournal j order by j.id", StockJournal.class)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 상품의 아직 반영되지 않은 재고 증감 합계
+     */
+    public int sumQuantity(Long itemId) {
+        Long sum = em.createQuery("select coalesce(sum(j.quantity), 0) from StockJournal j where j.itemId = :itemId", Long.class)
+                .setParameter("itemId", itemId)
+                .getSingleResult();
+        return sum.intValue();
+    }
+
+    /**
+     * item 테이블의 재고 + 아직 반영되지 않은 증감 합계
+     * 쿼리 하나로 읽으므로 그 사이 반영(flush)이 커밋되어도 둘 중 한쪽만 보는 일이 없다.
+     */
+    public long findStockWithPending(Long itemId) {
+        return em.createQuery("select i.stockQuantity + coalesce((select sum(j.quantity) from StockJournal j where j.itemId = i.id), 0)" +
+                        " from Item i where i.id = :itemId", Number.class)
+                .setParameter("itemId", itemId)
+                .getSingleResult()
+                .longValue();
+    }
+
+    public int deleteAllById(List<Long> ids) {
+        return em.createQuery("delete from StockJournal j where j.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,85 @@
+package jpabook.jpashop.repository.order.query;
+
+/**
+ * long 키 전용 해시 맵 (오픈 어드레싱, 선형 탐사)
+ * HashMap<Long, V>처럼 키를 Long으로 박싱하거나 엔트리마다 Node를 만들지 않고 long[]과 Object[] 두 배열만 쓴다.
+ * 행 수만큼 조회, 삽입이 일어나는 flat 결과 재조립용이라 삭제는 지원하지 않으며 값으로 null은 넣을 수 없다.
+ */
+class LongKeyMap<V> {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    LongKeyMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, (int) Math.ceil(expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            Object value = values[i];
+            if (value == null || keys[i] == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null 값은 넣을 수 없습니다");
+        }
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            Object old = values[i];
+            if (old == null) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size > (mask + 1) * LOAD_FACTOR) {
+                    rehash();
+                }
+                return null;
+            }
+            if (keys[i] == key) {
+                values[i] = value;
+                return (V) old;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        // 연속된 id가 한쪽에 몰리지 않도록 섞는다
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(values.length << 1);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int j = slot(oldKeys[i]);
+                while (values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,96 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 주문 목록을 열(column) 단위 배열로 담은 DTO
+ * 객체 배열로 내리면 주문, 주문상품마다 필드 이름이 반복되므로 필드별 배열 하나씩으로 바꿔 응답 크기를 줄인다.
+ * 주문상품은 주문 순서대로 이어 붙여 두고, 주문마다 몇 개씩인지는 orders.itemCount로 알려준다.
+ * ex) orders.itemCount = [2, 1] 이면 items의 0, 1번은 첫 번째 주문, 2번은 두 번째 주문의 상품
+ */
+@Getter
+public class OrderColumnsDto {
+
+    private final Orders orders;
+    private final Items items;
+
+    public OrderColumnsDto(List<OrderQueryDto> orderQueryDtos) {
+        int itemTotal = 0;
+        for (OrderQueryDto order : orderQueryDtos) {
+            itemTotal += itemsOf(order).size();
+        }
+
+        this.orders = new Orders(orderQueryDtos.size());
+        this.items = new Items(itemTotal);
+
+        int i = 0;
+        int j = 0;
+        for (OrderQueryDto order : orderQueryDtos) {
+            orders.orderId[i] = order.getOrderId();
+            orders.name[i] = order.getName();
+            orders.orderDate[i] = order.getOrderDate();
+            orders.orderStatus[i] = order.getOrderStatus();
+            Address address = order.getAddress();
+            if (address != null) {
+                orders.city[i] = address.getCity();
+                orders.street[i] = address.getStreet();
+                orders.zipcode[i] = address.getZipcode();
+            }
+
+            List<OrderItemQueryDto> orderItems = itemsOf(order);
+            orders.itemCount[i] = orderItems.size();
+            for (OrderItemQueryDto orderItem : orderItems) {
+                items.itemName[j] = orderItem.getItemName();
+                items.orderPrice[j] = orderItem.getOrderPrice();
+                items.count[j] = orderItem.getCount();
+                j++;
+            }
+            i++;
+        }
+    }
+
+    private static List<OrderItemQueryDto> itemsOf(OrderQueryDto order) {
+        return order.getOrderItem() == null ? List.of() : order.getOrderItem();
+    }
+
+    @Getter
+    public static class Orders {
+        private final long[] orderId;
+        private final String[] name;
+        private final LocalDateTime[] orderDate;
+        private final OrderStatus[] orderStatus;
+        private final String[] city;
+        private final String[] street;
+        private final String[] zipcode;
+        private final int[] itemCount;
+
+        private Orders(int size) {
+            orderId = new long[size];
+            name = new String[size];
+            orderDate = new LocalDateTime[size];
+            orderStatus = new OrderStatus[size];
+            city = new String[size];
+            street = new String[size];
+            zipcode = new String[size];
+            itemCount = new int[size];
+        }
+    }
+
+    @Getter
+    public static class Items {
+        private final String[] itemName;
+        private final int[] orderPrice;
+        private final int[] count;
+
+        private Items(int size) {
+            itemName = new String[size];
+            orderPrice = new int[size];
+            count = new int[size];
+        }
+    }
+}
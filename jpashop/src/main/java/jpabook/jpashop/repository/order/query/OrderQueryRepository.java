@@ -3,18 +3,25 @@ package jpabook.jpashop.repository.order.query;
 
 import jakarta.persistence.EntityManager;
 import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.repository.InQueries;
+import jpabook.jpashop.repository.ReadOnlyQueryExecutor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderQueryRepository {
 
+    // OrderItem IN 쿼리 하나에 넣는 주문 수 (InQueries로 2의 거듭제곱 크기에 맞춘다)
+    // H2에서 IN 목록이 수천 개로 길어지면 묶음 하나가 오히려 느려진다
+    private static final int ORDER_ITEM_CHUNK_SIZE = 128;
+
     private final EntityManager em;
+    private final ReadOnlyQueryExecutor queryExecutor;
 
     public List<OrderQueryDto> findOrderQueryDtos() {
         List<OrderQueryDto> result = findOrders();
@@ -47,6 +54,19 @@ public class OrderQueryRepository {
                 .getResultList();
     }
 
+    public List<OrderQueryDto> findOrders(Long cursor, int limit) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " where o.id > :cursor" +
+                                " order by o.id", OrderQueryDto.class)
+                .setParameter("cursor", cursor)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
     public List<OrderQueryDto> findAllByDto_optimization() {
         List<OrderQueryDto> result = findOrders();
 
@@ -58,6 +78,67 @@ public class OrderQueryRepository {
         return getOrderQueryDtos(result, orderItemMap);
     }
 
+    public List<OrderQueryDto> findAllByDto_parallel() {
+        return findAllByDto_parallel(ORDER_ITEM_CHUNK_SIZE);
+    }
+
+    /**
+     * findAllByDto_optimization의 병렬 버전
+     * 루트 쿼리를 order id 순서로 먼저 다 읽고 커넥션을 돌려준 뒤, chunkSize개씩 나눈 OrderItem IN 쿼리를 ReadOnlyQueryExecutor에 넘긴다.
+     * 묶음 쿼리는 작업 쓰레드들이 나눠 받아 각자의 커넥션에서 동시에 실행한다. (동시 실행 수는 ReadOnlyQueryExecutor 참고)
+     * 마지막 묶음처럼 chunkSize보다 작은 묶음도 InQueries.pad로 채워 SQL 모양을 몇 개로 고정한다.
+     * 쿼리마다 커넥션이 달라 같은 시점의 데이터라는 보장은 없다. (조회 도중 추가된 주문상품은 빠질 수 있다)
+     * 기다리는 동안 커넥션을 잡고 있지 않도록 트랜잭션 밖에서 호출해야 한다.
+     */
+    public List<OrderQueryDto> findAllByDto_parallel(int chunkSize) {
+        List<OrderQueryDto> result = queryExecutor.execute(OrderQueryRepository::findOrdersOrderById);
+
+        List<Long> orderIds = toOrderIds(result);
+        List<ReadOnlyQueryExecutor.QueryTask<List<OrderItemQueryDto>>> chunks = new ArrayList<>();
+        try {
+            for (int from = 0; from < orderIds.size(); from += chunkSize) {
+                List<Long> padded = InQueries.pad(orderIds.subList(from, Math.min(from + chunkSize, orderIds.size())));
+                chunks.add(queryExecutor.submit(em -> findOrderItems(em, padded)));
+            }
+        } catch (RuntimeException e) {
+            chunks.forEach(ReadOnlyQueryExecutor.QueryTask::cancel);
+            throw e;
+        }
+
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = new HashMap<>();
+        for (List<OrderItemQueryDto> orderItems : queryExecutor.joinAll(chunks)) {
+            for (OrderItemQueryDto orderItem : orderItems) {
+                orderItemMap.computeIfAbsent(orderItem.getOrderId(), id -> new ArrayList<>()).add(orderItem);
+            }
+        }
+        return getOrderQueryDtos(result, orderItemMap);
+    }
+
+    private static List<OrderQueryDto> findOrdersOrderById(EntityManager em) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " order by o.id", OrderQueryDto.class)
+                .getResultList();
+    }
+
+    /**
+     * findAllByDto_optimization의 커서(keyset) 페이징 버전
+     * 루트 쿼리만 커서로 잘라오고 OrderItem은 해당 페이지의 id로만 IN 쿼리를 날린다.
+     */
+    public List<OrderQueryDto> findAllByDto_cursor(Long cursor, int limit) {
+        List<OrderQueryDto> result = findOrders(cursor, limit);
+        if (result.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(result));
+
+        return getOrderQueryDtos(result, orderItemMap);
+    }
+
     private static List<OrderQueryDto> getOrderQueryDtos(List<OrderQueryDto> result, Map<Long, List<OrderItemQueryDto>> orderItemMap) {
         result.stream()
                 .map(o -> {
@@ -69,18 +150,22 @@ public class OrderQueryRepository {
         return result;
     }
 
+    // 주문이 많아도 IN 목록 하나에 ORDER_ITEM_CHUNK_SIZE개까지만 넣는다
     private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
-        List<OrderItemQueryDto> orderItems = em.createQuery(
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = InQueries
+                .stream(orderIds, ORDER_ITEM_CHUNK_SIZE, ids -> findOrderItems(em, ids))
+                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+        return orderItemMap;
+    }
+
+    private static List<OrderItemQueryDto> findOrderItems(EntityManager em, List<Long> orderIds) {
+        return em.createQuery(
                         "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
                                 " from OrderItem oi" +
                                 " join oi.item i" +
                                 " where oi.order.id in :orderIds", OrderItemQueryDto.class)
                 .setParameter("orderIds", orderIds)
                 .getResultList();
-
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
-                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
-        return orderItemMap;
     }
 
     private static List<Long> toOrderIds(List<OrderQueryDto> result) {
@@ -100,4 +185,49 @@ public class OrderQueryRepository {
                         " join oi.item i", OrderFlatDto.class)
                 .getResultList();
     }
+
+    /**
+     * findAllByDto_flat 결과를 주문 단위로 다시 묶는다.
+     * 주문 정보가 주문상품 수만큼 중복된 행을 한 번만 훑어서 OrderQueryDto 목록으로 만든다.
+     * 조인 결과는 주문 순서가 섞여 나올 수 있으므로 order by 없이 order id로 LongKeyMap에서 찾고, 처음 나온 순서를 유지한다.
+     */
+    public List<OrderQueryDto> findAllByDto_flatGrouped() {
+        return groupByOrder(findAllByDto_flat());
+    }
+
+    static List<OrderQueryDto> groupByOrder(List<OrderFlatDto> rows) {
+        List<OrderQueryDto> result = new ArrayList<>();
+        LongKeyMap<OrderQueryDto> orders = new LongKeyMap<>(rows.size());
+
+        for (OrderFlatDto row : rows) {
+            long orderId = row.getOrderId();
+            OrderQueryDto order = orders.get(orderId);
+            if (order == null) {
+                order = new OrderQueryDto(row.getOrderId(), row.getName(), row.getOrderDate(), row.getOrderStatus(), row.getAddress());
+                order.setOrderItem(new ArrayList<>());
+                orders.put(orderId, order);
+                result.add(order);
+            }
+            order.getOrderItem().add(new OrderItemQueryDto(row.getOrderId(), row.getItemName(), row.getOrderPrice(), row.getCount()));
+        }
+        return result;
+    }
+
+    /**
+     * findAllByDto_flat의 스트리밍 버전
+     * getResultList()처럼 전체를 List로 올리지 않고 커서로 한 줄씩 읽어온다.
+     * 같은 주문의 행이 연달아 나오도록 order id로 정렬하며, 사용 후 반드시 close 해야 한다.
+     */
+    public Stream<OrderFlatDto> streamAllByDto_flat() {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+                        " from Order o" +
+                        " join o.member m" +
+                        " join o.delivery d" +
+                        " join o.orderItems oi" +
+                        " join oi.item i" +
+                        " order by o.id", OrderFlatDto.class)
+                .setHint("org.hibernate.fetchSize", 1000)
+                .getResultStream();
+    }
 }
@@ -3,6 +3,7 @@ package jpabook.jpashop.service;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.service.stock.StockManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,6 +16,7 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final StockManager stockManager;
 
     @Transactional
     public void saveItem(Item item) {
@@ -38,7 +40,9 @@ public class ItemService {
     @Transactional
     public void updateItem(Long itemId, String name, int price, int stockQuantity) {
         Item item = itemRepository.findOne(itemId);
-        item.editItem(name, price, stockQuantity);   // update 메소드에서 setter 하나하나씩 만들지말고 별도의 메소드로 분리해야 함.
+        // update 메소드에서 setter 하나하나씩 만들지말고 별도의 메소드로 분리해야 함.
+        // 재고를 주문과 같은 방식(jpashop.stock.mode)으로 바꿔야 하므로 StockManager를 거친다
+        stockManager.editItem(item, name, price, stockQuantity);
     }
     /* 파라미터가 많다 싶으면 서비스 계층에 DTO를 별도로 만들것.
     ex)
@@ -0,0 +1,110 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * 가입된 회원 이름의 블룸 필터
+ * mightContain이 false면 그 이름은 확실히 없는 이름이므로 회원 가입 시 중복 조회 쿼리를 건너뛴다.
+ * true는 "있을 수도 있다"는 뜻이라 기존처럼 조회해서 확인한다.
+ *
+ * 필터는 조회를 줄이는 용도일 뿐이고 중복은 member.name의 unique 제약이 최종적으로 막는다.
+ * 그래서 시작 직후 채우는 중이거나, 다른 서버에서 가입해 필터에 빠진 이름이 있어도 중복 회원이 생기지는 않는다.
+ * 이름을 빼는 기능은 없으므로 회원 이름이 바뀌면 옛 이름은 오탐(false positive)으로 남는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jpashop.member.name-filter.enabled", havingValue = "true")
+public class MemberNameFilter {
+
+    private final MemberRepository memberRepository;
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashCount;
+
+    public MemberNameFilter(MemberRepository memberRepository,
+                            @Value("${jpashop.member.name-filter.expected-names:1000000}") int expectedNames,
+                            @Value("${jpashop.member.name-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.memberRepository = memberRepository;
+        long optimalBits = (long) Math.ceil(-expectedNames * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((optimalBits + 63) / 64));
+        this.bitSize = bits.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedNames * Math.log(2)));
+    }
+
+    /**
+     * 시작 시점에 저장된 회원 이름으로 채운다
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warm() {
+        long count = 0;
+        try (Stream<String> names = memberRepository.streamAllNames()) {
+            for (Iterator<String> it = names.iterator(); it.hasNext(); count++) {
+                put(it.next());
+            }
+        }
+        log.info("member name filter warmed. names={}, bits={}, hashes={}", count, bitSize, hashCount);
+    }
+
+    public void put(String name) {
+        if (name == null) {
+            return;
+        }
+        long hash = hash(name);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hash, i);
+            long mask = 1L << index;
+            bits.accumulateAndGet((int) (index >>> 6), mask, (word, bit) -> word | bit);
+        }
+    }
+
+    public boolean mightContain(String name) {
+        if (name == null) {
+            return true;
+        }
+        long hash = hash(name);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hash, i);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64비트 해시를 둘로 나눠 h1 + i * h2로 hashCount개의 위치를 만든다 (Kirsch-Mitzenmacher)
+     */
+    private long index(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long combined = h1 + (long) i * h2;
+        return Math.floorMod(combined, bitSize);
+    }
+
+    // FNV-1a 후 MurmurHash3 finalizer로 비트를 섞는다
+    private static long hash(String name) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            h ^= name.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
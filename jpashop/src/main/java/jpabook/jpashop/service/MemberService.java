@@ -4,7 +4,9 @@ import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.repository.MemberRepository;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +22,8 @@ public class MemberService {
 
     // Repository는 변경할 일이 없고, 생성자에서 주입을 시켰는지 이중으로 확인할 수 있어 final을 권장
     private final MemberRepository memberRepository;
+    // jpashop.member.name-filter.enabled=true 일 때만 등록된다
+    private final ObjectProvider<MemberNameFilter> memberNameFilter;
 
     /**
      * 생성자 injection의 장점
@@ -39,14 +43,24 @@ public class MemberService {
     @Transactional
     public Long join(Member member) {
         ValidateDuplicateMember(member);    // 중복 회원 검증
-        memberRepository.save(member);
+        try {
+            memberRepository.saveAndFlush(member);
+        } catch (DataIntegrityViolationException e) {
+            // 검증과 저장 사이에 다른 쓰레드가 같은 이름으로 먼저 가입한 경우
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+        memberNameFilter.ifAvailable(filter -> filter.put(member.getName()));
         return member.getId();
     }
 
     private void ValidateDuplicateMember(Member member) {
-        // EXCEPTION
         // 멀티쓰레드 상황에는 이 중복 회원 검증 메서드가 적용 안될 경우도 있다.
-        // 따라서 데이터베이스에도 member name에 unique 제약을 이중으로 걸어둬 안전하게 하는 것이 좋다.
+        // 그래서 member name에 unique 제약을 걸어두고, 여기서는 대부분의 중복을 쿼리 한 번으로 일찍 걸러내는 역할만 한다.
+        // 블룸 필터에 없는 이름은 확실히 새 이름이므로 조회도 생략한다.
+        MemberNameFilter filter = memberNameFilter.getIfAvailable();
+        if (filter != null && !filter.mightContain(member.getName())) {
+            return;
+        }
         List<Member> findMembers = memberRepository.findByName(member.getName());
         if(!findMembers.isEmpty()) {
             throw new IllegalStateException("이미 존재하는 회원입니다.");
@@ -65,5 +79,6 @@ public class MemberService {
     public void update(Long id, String name) {
         Member member = memberRepository.findOne(id);
         member.setName(name);
+        memberNameFilter.ifAvailable(filter -> filter.put(name));
     }
 }
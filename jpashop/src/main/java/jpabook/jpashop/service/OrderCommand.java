@@ -0,0 +1,36 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 대량 주문(placeOrders)용 주문 한 건
+ * 회원 한 명이 여러 상품을 한 번에 주문할 수 있다.
+ */
+@Getter
+public class OrderCommand {
+
+    private final Long memberId;
+    private final List<OrderLine> orderLines;
+
+    public OrderCommand(Long memberId, List<OrderLine> orderLines) {
+        this.memberId = memberId;
+        this.orderLines = orderLines;
+    }
+
+    public static OrderCommand of(Long memberId, Long itemId, int count) {
+        return new OrderCommand(memberId, List.of(new OrderLine(itemId, count)));
+    }
+
+    @Getter
+    public static class OrderLine {
+        private final Long itemId;
+        private final int count;
+
+        public OrderLine(Long itemId, int count) {
+            this.itemId = itemId;
+            this.count = count;
+        }
+    }
+}
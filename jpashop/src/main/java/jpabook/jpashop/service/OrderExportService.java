@@ -0,0 +1,83 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 주문 전체를 NDJSON(한 줄에 주문 하나)으로 내보낸다.
+ * flat 조회 결과를 스트림으로 읽으면서 주문 단위로 다시 묶어 바로 써버리므로
+ * 주문 수가 아무리 많아도 메모리에는 주문 하나 분량만 올라간다.
+ * DTO 조회라 영속성 컨텍스트에는 아무것도 쌓이지 않으므로 따로 비워줄 필요가 없다.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private static final int FLUSH_INTERVAL = 1000;
+    private static final byte NEW_LINE = '\n';
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @return 내보낸 주문 수
+     */
+    public long exportOrders(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer();
+        long orderCount = 0;
+        long rowCount = 0;
+
+        try (Stream<OrderFlatDto> rows = orderQueryRepository.streamAllByDto_flat()) {
+            Iterator<OrderFlatDto> iterator = rows.iterator();
+            OrderQueryDto current = null;
+
+            while (iterator.hasNext()) {
+                OrderFlatDto row = iterator.next();
+
+                // 정렬된 결과이므로 order id가 바뀌면 이전 주문은 완성된 것
+                if (current == null || !current.getOrderId().equals(row.getOrderId())) {
+                    if (current != null) {
+                        writeLine(writer, current, out);
+                        orderCount++;
+                    }
+                    current = new OrderQueryDto(row.getOrderId(), row.getName(), row.getOrderDate(), row.getOrderStatus(), row.getAddress());
+                    current.setOrderItem(new ArrayList<>());
+                }
+                current.getOrderItem().add(new OrderItemQueryDto(row.getOrderId(), row.getItemName(), row.getOrderPrice(), row.getCount()));
+
+                // 클라이언트가 받기 시작할 수 있도록 주기적으로 출력 버퍼를 내보낸다.
+                if (++rowCount % FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+
+            if (current != null) {
+                writeLine(writer, current, out);
+                orderCount++;
+            }
+        }
+
+        out.flush();
+        return orderCount;
+    }
+
+    private static void writeLine(ObjectWriter writer, OrderQueryDto order, OutputStream out) throws IOException {
+        // writeValue(out, ...)는 스트림을 닫아버리므로 byte[]로 직렬화해서 쓴다.
+        out.write(writer.writeValueAsBytes(order));
+        out.write(NEW_LINE);
+    }
+}
@@ -9,11 +9,18 @@ import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.stock.StockManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
@@ -23,6 +30,7 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final StockManager stockManager;
 
     /**
      * 주문
@@ -39,7 +47,7 @@ public class OrderService {
         delivery.setAddress(member.getAddress());
 
         // 주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        OrderItem orderItem = stockManager.createOrderItem(item, item.getPrice(), count);
 
         /**
          * 주문 생성
@@ -53,6 +61,68 @@ public class OrderService {
         return order.getId();
     }
 
+    /**
+     * 대량 주문
+     * order()를 여러 번 호출하면 주문마다 트랜잭션, 회원/상품 조회, insert가 따로 나간다.
+     * 여기서는 회원과 상품을 IN 쿼리로 한 번에 읽어오고 하나의 트랜잭션에서 주문을 모두 persist 한다.
+     * insert는 커밋 시점에 hibernate.jdbc.batch_size 단위의 JDBC 배치로 묶여서 나간다.
+     */
+    @Transactional
+    public List<Long> placeOrders(List<OrderCommand> commands) {
+        Map<Long, Member> members = findMembers(commands);
+        Map<Long, Item> items = findItems(commands);
+
+        List<Order> orders = new ArrayList<>(commands.size());
+        for (OrderCommand command : commands) {
+            Member member = members.get(command.getMemberId());
+            if (member == null) {
+                throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId=" + command.getMemberId());
+            }
+
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+
+            OrderItem[] orderItems = new OrderItem[command.getOrderLines().size()];
+            for (int i = 0; i < orderItems.length; i++) {
+                OrderCommand.OrderLine line = command.getOrderLines().get(i);
+                Item item = items.get(line.getItemId());
+                if (item == null) {
+                    throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + line.getItemId());
+                }
+                orderItems[i] = stockManager.createOrderItem(item, item.getPrice(), line.getCount());
+            }
+
+            Order order = Order.createOrder(member, delivery, orderItems);
+            orderRepository.save(order);
+            orders.add(order);
+        }
+
+        return orders.stream()
+                .map(Order::getId)
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Member> findMembers(List<OrderCommand> commands) {
+        Set<Long> memberIds = commands.stream()
+                .map(OrderCommand::getMemberId)
+                .collect(Collectors.toSet());
+
+        return memberRepository.findAllById(memberIds).stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+    }
+
+    private Map<Long, Item> findItems(List<OrderCommand> commands) {
+        Set<Long> itemIds = new HashSet<>();
+        for (OrderCommand command : commands) {
+            for (OrderCommand.OrderLine line : command.getOrderLines()) {
+                itemIds.add(line.getItemId());
+            }
+        }
+
+        return itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+    }
+
     /**
      * 주문 취소
      */
@@ -61,7 +131,7 @@ public class OrderService {
         // 주문 엔티티 조회
         Order order = orderRepository.findOne(orderId);
         // 주문 취소
-        order.cancel();
+        stockManager.cancel(order);
     }
 
     /**
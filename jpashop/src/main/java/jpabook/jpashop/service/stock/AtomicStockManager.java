@@ -0,0 +1,47 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 조건부 update 쿼리로 재고를 수정한다.
+ * 재고 확인과 차감이 쿼리 하나에서 일어나므로 동시에 주문이 몰려도 초과 판매나 갱신 손실이 없다.
+ * 엔티티의 stockQuantity는 건드리지 않으므로 변경감지로 재고가 덮어써지는 일도 없다.
+ */
+@Component
+@ConditionalOnProperty(name = "jpashop.stock.mode", havingValue = "atomic")
+@RequiredArgsConstructor
+public class AtomicStockManager implements StockManager {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public OrderItem createOrderItem(Item item, int orderPrice, int count) {
+        if (itemRepository.decreaseStock(item.getId(), count) == 0) {
+            throw new NotEnoughStockException("need more stock");
+        }
+        return OrderItem.createReservedOrderItem(item, orderPrice, count);
+    }
+
+    @Override
+    public void cancel(Order order) {
+        order.markCanceled();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            itemRepository.increaseStock(orderItem.getItem().getId(), orderItem.getCount());
+        }
+    }
+
+    /**
+     * 주문은 item row를 조건부 update로만 바꾸므로 관리자 수정은 변경감지로 덮어써도 된다
+     */
+    @Override
+    public void editItem(Item item, String name, int price, int stockQuantity) {
+        item.editItem(name, price, stockQuantity);
+    }
+}
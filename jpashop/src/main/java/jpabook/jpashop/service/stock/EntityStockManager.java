@@ -0,0 +1,31 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Item;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 엔티티의 비지니스 로직(decreaseStock, addStock)과 변경감지로 재고를 수정한다.
+ * 같은 상품에 동시에 주문이 몰리면 나중에 커밋된 값이 앞의 값을 덮어써 갱신 손실이 생길 수 있다.
+ */
+@Component
+@ConditionalOnProperty(name = "jpashop.stock.mode", havingValue = "entity", matchIfMissing = true)
+public class EntityStockManager implements StockManager {
+
+    @Override
+    public OrderItem createOrderItem(Item item, int orderPrice, int count) {
+        return OrderItem.createOrderItem(item, orderPrice, count);
+    }
+
+    @Override
+    public void cancel(Order order) {
+        order.cancel();
+    }
+
+    @Override
+    public void editItem(Item item, String name, int price, int stockQuantity) {
+        item.editItem(name, price, stockQuantity);
+    }
+}
@@ -0,0 +1,49 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 메모리 재고 장부(StockLedger)로 재고를 수정한다.
+ * 주문 트랜잭션은 item row를 전혀 수정하지 않으므로 타임세일처럼 소수 상품에 주문이 몰릴 때 사용한다.
+ */
+@Component
+@ConditionalOnProperty(name = "jpashop.stock.mode", havingValue = "ledger")
+@RequiredArgsConstructor
+public class LedgerStockManager implements StockManager {
+
+    private final StockLedger stockLedger;
+    private final ItemRepository itemRepository;
+
+    @Override
+    public OrderItem createOrderItem(Item item, int orderPrice, int count) {
+        stockLedger.reserve(item.getId(), count);
+        return OrderItem.createReservedOrderItem(item, orderPrice, count);
+    }
+
+    @Override
+    public void cancel(Order order) {
+        order.markCanceled();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            stockLedger.restock(orderItem.getItem().getId(), orderItem.getCount());
+        }
+    }
+
+    /**
+     * item.stockQuantity를 직접 바꾸면 메모리 카운터가 모르고, 반영되지 않은 기록이 그 위에 더해진다.
+     * 그래서 재고는 현재 장부 재고와의 차이를 증감 기록으로 남긴다.
+     * 이름, 가격도 변경감지로 바꾸면 update에 읽어둔 stock_quantity가 함께 들어가서,
+     * 읽은 뒤 커밋 전에 끝난 반영(flush)을 덮어쓴다. (반영한 기록은 이미 지워져 재고가 사라진다)
+     * 그래서 엔티티는 건드리지 않고 이름, 가격만 update 한다.
+     */
+    @Override
+    public void editItem(Item item, String name, int price, int stockQuantity) {
+        itemRepository.updateNameAndPrice(item.getId(), name, price);
+        stockLedger.adjustTo(item.getId(), stockQuantity);
+    }
+}
@@ -0,0 +1,262 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.domain.StockJournal;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.StockJournalRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 메모리 재고 장부(ledger 모드)
+ * 재고 확인/차감은 상품별 StripedStockCounter에서 메모리로 처리하고,
+ * DB에는 stock_journal에 증감 기록만 insert 한다. item 테이블은 주기적으로(또는 쌓인 기록이 많아지면) 한 번에 반영한다.
+ *
+ * 예약 규칙
+ * - 주문 : 메모리에서 먼저 차감(예약)하고 기록을 남긴다. 트랜잭션이 롤백되면 예약을 되돌린다.
+ * - 취소 : 기록을 남기고, 커밋된 뒤에 메모리 재고를 늘린다.
+ *
+ * 카운터는 상품을 처음 사용할 때 item.stockQuantity + 아직 반영되지 않은 기록의 합으로 채운다.
+ * 서버가 죽으면 메모리는 사라지지만 커밋된 기록은 남아 있으므로, 시작 시 기록을 모두 반영(reconcile)한 뒤 다시 채우면 된다.
+ * 단일 서버를 전제로 하며, 이 모드에서 item.stockQuantity는 반영 주기만큼 늦게 보인다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jpashop.stock.mode", havingValue = "ledger")
+public class StockLedger {
+
+    private static final int FLUSH_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final StockJournalRepository stockJournalRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final int stripeCount;
+    private final int flushThreshold;
+
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    private final AtomicLong pendingJournals = new AtomicLong();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    // 반영끼리 같은 기록을 두 번 반영하지 않도록 한 번에 하나만 실행한다. (카운터 채우기와는 상관없다)
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public StockLedger(ItemRepository itemRepository,
+                       StockJournalRepository stockJournalRepository,
+                       PlatformTransactionManager transactionManager,
+                       TaskScheduler taskScheduler,
+                       @Value("${jpashop.stock.ledger.flush-threshold:1000}") int flushThreshold) {
+        this.itemRepository = itemRepository;
+        this.stockJournalRepository = stockJournalRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskScheduler = taskScheduler;
+        this.stripeCount = Runtime.getRuntime().availableProcessors();
+        this.flushThreshold = flushThreshold;
+    }
+
+    /**
+     * 재고 예약(차감). 진행중인 트랜잭션 안에서 호출해야 한다.
+     */
+    public void reserve(Long itemId, int quantity) {
+        StripedStockCounter counter = counter(itemId);
+        if (!counter.tryReserve(quantity)) {
+            throw new NotEnoughStockException("need more stock");
+        }
+        journalReserved(itemId, counter, quantity);
+    }
+
+    /**
+     * 재고를 stockQuantity로 맞춘다(관리자 수정). 진행중인 트랜잭션 안에서 호출해야 한다.
+     * 현재 장부 재고와의 차이를 증감 기록으로 남기므로 반영되지 않은 기록, 동시 주문과 섞여도 합계가 맞는다.
+     * 줄이는 쪽은 주문처럼 바로 예약하고, 늘리는 쪽은 취소처럼 커밋된 뒤에 주문할 수 있게 된다.
+     */
+    public void adjustTo(Long itemId, int stockQuantity) {
+        StripedStockCounter counter = counter(itemId);
+        while (true) {
+            long delta = stockQuantity - counter.sum();
+            if (delta == 0) {
+                return;
+            }
+            if (delta > 0) {
+                restock(itemId, (int) delta);
+                return;
+            }
+            // 그 사이 다른 주문이 재고를 가져갔으면 다시 계산한다
+            if (counter.tryReserve((int) -delta)) {
+                journalReserved(itemId, counter, (int) -delta);
+                return;
+            }
+        }
+    }
+
+    private void journalReserved(Long itemId, StripedStockCounter counter, int quantity) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                journalCommitted();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    counter.release(quantity);
+                }
+            }
+        });
+        stockJournalRepository.save(new StockJournal(itemId, -quantity));
+    }
+
+    /**
+     * 재고 복구. 진행중인 트랜잭션 안에서 호출해야 하며, 커밋된 뒤에 다시 주문할 수 있게 된다.
+     */
+    public void restock(Long itemId, int quantity) {
+        // 커밋 전에 카운터를 만들어둬야 커밋된 기록을 채우기와 release 양쪽에서 두 번 세지 않는다.
+        StripedStockCounter counter = counter(itemId);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counter.release(quantity);
+                journalCommitted();
+            }
+        });
+        stockJournalRepository.save(new StockJournal(itemId, quantity));
+    }
+
+    /**
+     * 메모리 기준 현재 재고
+     */
+    public long getStock(Long itemId) {
+        return counter(itemId).sum();
+    }
+
+    /**
+     * 시작 시 이전에 반영되지 못한 기록을 item 테이블에 모두 반영한다.
+     * ApplicationReadyEvent 전에 들어온 주문도 안전하다. 카운터는 item 재고 + 남은 기록의 합을 쿼리 하나로 읽어 채우므로
+     * 반영 전이든 후든 같은 값이 나온다.
+     * 여기서는 item 테이블이 오래 늦게 보이지 않도록 미리 반영해 둘 뿐이다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        int applied = flushAll();
+        if (applied > 0) {
+            log.info("stock ledger reconciled {} journal entries", applied);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.stock.ledger.flush-interval:1000}")
+    public void scheduledFlush() {
+        if (flushing.compareAndSet(false, true)) {
+            try {
+                flushAll();
+            } finally {
+                flushing.set(false);
+            }
+        }
+    }
+
+    /**
+     * 쌓인 기록을 모두 item 테이블에 반영
+     * @return 반영한 기록 수
+     */
+    public int flushAll() {
+        int total = 0;
+        int applied;
+        do {
+            applied = flush();
+            total += applied;
+        } while (applied == FLUSH_BATCH_SIZE);
+        return total;
+    }
+
+    /**
+     * 오래된 기록부터 FLUSH_BATCH_SIZE개를 상품별로 합쳐 update 한 번씩 날리고, 반영한 기록은 지운다.
+     * 모두 한 트랜잭션이므로 중간에 죽어도 기록은 반영되거나 그대로 남거나 둘 중 하나다.
+     */
+    int flush() {
+        flushLock.lock();
+        try {
+            Integer applied = transactionTemplate.execute(status -> {
+                List<StockJournal> journals = stockJournalRepository.findOldest(FLUSH_BATCH_SIZE);
+                if (journals.isEmpty()) {
+                    return 0;
+                }
+
+                // 상품 id 순서로 update 해서 다른 트랜잭션과 락 순서가 엇갈리지 않게 한다.
+                Map<Long, Integer> deltas = journals.stream()
+                        .collect(Collectors.groupingBy(StockJournal::getItemId, TreeMap::new,
+                                Collectors.summingInt(StockJournal::getQuantity)));
+                deltas.forEach((itemId, delta) -> itemRepository.increaseStock(itemId, delta));
+
+                stockJournalRepository.deleteAllById(journals.stream()
+                        .map(StockJournal::getId)
+                        .collect(Collectors.toList()));
+                return journals.size();
+            });
+            // 이전 실행에서 남은 기록은 세지 않았으므로 0 밑으로 내려가지 않게 한다 (음수면 임계치 반영이 그만큼 늦어진다)
+            pendingJournals.accumulateAndGet(-applied, (pending, delta) -> Math.max(0, pending + delta));
+            return applied;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    long pendingJournals() {
+        return pendingJournals.get();
+    }
+
+    private StripedStockCounter counter(Long itemId) {
+        StripedStockCounter counter = counters.get(itemId);
+        if (counter != null) {
+            return counter;
+        }
+        // 조회는 computeIfAbsent 밖에서 한다. 안에서 쿼리를 기다리면 같은 bin의 다른 상품까지 막힌다.
+        // 동시에 채운 쪽이 있으면 먼저 들어간 카운터를 쓴다. (아직 아무도 차감하지 않았으므로 버려도 된다)
+        StripedStockCounter loaded = load(itemId);
+        StripedStockCounter existing = counters.putIfAbsent(itemId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * item 테이블의 재고에 아직 반영되지 않은 기록을 더해 카운터를 만든다.
+     * 호출한 쪽의 트랜잭션에서 조회하며, 그 트랜잭션이 이 상품에 대해 남긴 기록은 아직 없다.
+     * 호출한 쪽이 읽어둔 Item은 그 사이 반영(flush)된 기록을 모를 수 있으므로 재고는 쿼리로 다시 읽는다.
+     * 재고와 기록 합계를 쿼리 하나로 읽으므로 반영을 기다리지 않는다. 커넥션을 쥔 채 반영을 기다리면
+     * 풀이 가득 찼을 때 커넥션을 얻어야 하는 반영과 서로 기다리게 된다.
+     */
+    private StripedStockCounter load(Long itemId) {
+        return new StripedStockCounter(stockJournalRepository.findStockWithPending(itemId), stripeCount);
+    }
+
+    private void journalCommitted() {
+        if (pendingJournals.incrementAndGet() >= flushThreshold && flushing.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                try {
+                    flushAll();
+                } finally {
+                    flushing.set(false);
+                }
+            }, Instant.now());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Item;
+
+/**
+ * 주문/취소 시 재고를 차감하고 되돌리는 방식
+ * jpashop.stock.mode 설정으로 구현체를 고른다.
+ * - entity(기본값) : Item 엔티티를 변경감지로 수정
+ * - atomic : 조건부 update 쿼리로 원자적으로 차감
+ * - ledger : 메모리 재고 장부에서 차감하고 item 테이블에는 주기적으로 반영
+ */
+public interface StockManager {
+
+    /**
+     * 재고를 차감하고 주문상품을 생성
+     * 재고가 부족하면 NotEnoughStockException
+     */
+    OrderItem createOrderItem(Item item, int orderPrice, int count);
+
+    /**
+     * 주문을 취소하고 재고를 되돌린다
+     */
+    void cancel(Order order);
+
+    /**
+     * 관리자가 상품 이름, 가격, 재고를 직접 수정
+     * 재고를 반영하는 방식에 따라 item row를 어떻게 써야 하는지가 달라 이름, 가격도 여기서 함께 바꾼다.
+     */
+    void editItem(Item item, String name, int price, int stockQuantity);
+}
@@ -0,0 +1,92 @@
+package jpabook.jpashop.service.stock;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 상품 하나의 재고를 여러 칸(stripe)에 나눠 담은 카운터
+ * LongAdder처럼 쓰레드마다 다른 칸을 CAS로 차감하므로 인기 상품이라도 한 곳에 경합이 몰리지 않는다.
+ * 다만 LongAdder와 달리 "남은 재고가 있을 때만" 차감해야 하므로,
+ * 자기 칸이 모자라면 다른 칸을 찾아보고, 그래도 모자라면 락을 잡고 모든 칸을 모아 다시 나눈다.
+ * 재고가 실제로 남아 있는데 실패하는 일은 없다(모자라다는 판단은 항상 락 안에서 전체 합으로 한다).
+ */
+class StripedStockCounter {
+
+    // 칸 하나를 캐시 라인(64byte) 하나에 두어 서로 다른 칸끼리 false sharing이 생기지 않게 한다.
+    private static final int PADDING = 8;
+
+    private final int stripeCount;
+    private final AtomicLongArray stripes;
+
+    StripedStockCounter(long initialStock, int stripeCount) {
+        this.stripeCount = stripeCount;
+        this.stripes = new AtomicLongArray(stripeCount * PADDING);
+        distribute(initialStock);
+    }
+
+    /**
+     * 재고가 충분하면 차감하고 true, 모자라면 아무것도 바꾸지 않고 false
+     */
+    boolean tryReserve(int quantity) {
+        int start = probe();
+        for (int i = 0; i < stripeCount; i++) {
+            if (tryTake((start + i) % stripeCount, quantity)) {
+                return true;
+            }
+        }
+        return reserveSlow(quantity);
+    }
+
+    /**
+     * 예약 취소, 주문 취소로 재고를 되돌린다
+     */
+    void release(int quantity) {
+        stripes.addAndGet(probe() * PADDING, quantity);
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            sum += stripes.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private boolean tryTake(int stripe, int quantity) {
+        int index = stripe * PADDING;
+        long current;
+        do {
+            current = stripes.get(index);
+            if (current < quantity) {
+                return false;
+            }
+        } while (!stripes.compareAndSet(index, current, current - quantity));
+        return true;
+    }
+
+    /**
+     * 어느 한 칸에도 quantity만큼 남아 있지 않을 때 모든 칸을 모아서 판단한다.
+     * 다른 쓰레드의 CAS 차감, release와 동시에 일어나도 되도록 getAndSet/addAndGet만 사용한다.
+     */
+    private synchronized boolean reserveSlow(int quantity) {
+        long total = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            total += stripes.getAndSet(i * PADDING, 0);
+        }
+
+        boolean reserved = total >= quantity;
+        distribute(reserved ? total - quantity : total);
+        return reserved;
+    }
+
+    private void distribute(long stock) {
+        long share = stock / stripeCount;
+        long remainder = stock % stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.addAndGet(i * PADDING, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    private int probe() {
+        return (int) (Thread.currentThread().getId() % stripeCount);
+    }
+}
@@ -0,0 +1,138 @@
+package jpabook.jpashop.api;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.config.QueryCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static jpabook.jpashop.config.QueryCountAssertions.assertMaxQueries;
+import static jpabook.jpashop.config.QueryCountAssertions.countQueries;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 주문 API 버전별 SQL 수
+ * InitDb 주문 2건(주문상품 2개씩) 기준, 테스트 설정에는 default_batch_fetch_size가 없다.
+ * 페치 조인, DTO 조회 버전은 쿼리 수 상한을 걸어두고, 지연 로딩 버전은 반복 SQL이 잡히는지 확인한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderApiQueryCountTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    EntityManagerFactory emf;
+
+    @BeforeEach
+    void evictCache() {
+        //2차 캐시에 남은 회원, 상품 때문에 실행 순서에 따라 쿼리 수가 달라지지 않도록
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    public void 엔티티_직접_노출_N플러스1_감지() throws Exception {
+        // when
+        QueryCount count = countQueries(() -> mockMvc.perform(get("/api/v1/orders")).andExpect(status().isOk()));
+
+        // then
+        assertFalse(count.suspects(2).isEmpty(), count.toString());
+    }
+
+    @Test
+    public void 엔티티_DTO_변환_N플러스1_감지() throws Exception {
+        // when
+        QueryCount count = countQueries(() -> mockMvc.perform(get("/api/v2/orders")).andExpect(status().isOk()));
+
+        // then
+        assertFalse(count.suspects(2).isEmpty(), count.toString());
+    }
+
+    @Test
+    public void 페치_조인_쿼리_1번() throws Exception {
+        assertMaxQueries(1, () -> mockMvc.perform(get("/api/v3/orders")).andExpect(status().isOk()));
+    }
+
+    @Test
+    public void 페치_조인_페이징_상한() throws Exception {
+        //주문 1번 + 주문상품 1번 + 상품(배치 크기가 없어 상품 수만큼)
+        assertMaxQueries(6, () -> mockMvc.perform(get("/api/v3.1/orders")).andExpect(status().isOk()));
+        assertMaxQueries(6, () -> mockMvc.perform(get("/api/v3.2/orders")).andExpect(status().isOk()));
+    }
+
+    @Test
+    public void 커서_페이징_잘못된_파라미터는_400() throws Exception {
+        for (String url : new String[]{"/api/v3.2/orders", "/api/v5.1/orders"}) {
+            mockMvc.perform(get(url).param("after", "not-a-cursor")).andExpect(status().isBadRequest());
+            mockMvc.perform(get(url).param("limit", "0")).andExpect(status().isBadRequest());
+            mockMvc.perform(get(url).param("limit", "1001")).andExpect(status().isBadRequest());
+            mockMvc.perform(get(url).param("limit", "1000")).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    public void 주문_일괄생성_잘못된_요청은_400() throws Exception {
+        String[] bodies = {
+                "{}",
+                "{\"orders\": []}",
+                "{\"orders\": [null]}",
+                "{\"orders\": [{\"memberId\": 1}]}",
+                "{\"orders\": [{\"items\": [{\"itemId\": 1, \"count\": 1}]}]}",
+                "{\"orders\": [{\"memberId\": 1, \"items\": [{\"count\": 1}]}]}"
+        };
+        for (String body : bodies) {
+            mockMvc.perform(post("/api/v1/orders/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    public void DTO_직접_조회_N플러스1_감지() throws Exception {
+        // when
+        QueryCount count = assertMaxQueries(3, () -> mockMvc.perform(get("/api/v4/orders")).andExpect(status().isOk()));
+
+        // then (주문 수만큼 주문상품 조회)
+        assertFalse(count.suspects(2).isEmpty(), count.toString());
+    }
+
+    @Test
+    public void DTO_IN_조회_쿼리_2번() throws Exception {
+        assertMaxQueries(2, () -> mockMvc.perform(get("/api/v5/orders")).andExpect(status().isOk()));
+        assertMaxQueries(2, () -> mockMvc.perform(get("/api/v5.1/orders")).andExpect(status().isOk()));
+    }
+
+    @Test
+    public void DTO_병렬_조회_다른_쓰레드_쿼리도_집계() throws Exception {
+        // when
+        QueryCount count = assertMaxQueries(2, () -> mockMvc.perform(get("/api/v5.2/orders")).andExpect(status().isOk()));
+
+        // then (루트 쿼리 + 다른 쓰레드에서 실행된 주문상품 IN 쿼리)
+        assertEquals(2, count.getTotal(), count.toString());
+    }
+
+    @Test
+    public void 플랫_조회_쿼리_1번() throws Exception {
+        assertMaxQueries(1, () -> mockMvc.perform(get("/api/v6/orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].orderItem.length()").value(2)));
+    }
+
+    @Test
+    public void 플랫_열_단위_조회_쿼리_1번() throws Exception {
+        assertMaxQueries(1, () -> mockMvc.perform(get("/api/v6.1/orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.orders.itemCount").value(contains(2, 2)))
+                .andExpect(jsonPath("$.data.items.itemName.length()").value(4)));
+    }
+}
@@ -0,0 +1,60 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+import jpabook.jpashop.repository.Result;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 주문 1만 건(주문상품 2개씩) 응답 직렬화 기본(BeanSerializer) vs OrderJsonModule 비교 (JPASHOP_BENCHMARK=true 일 때만 실행)
+ * 예열 후 반복 실행한 평균 시간과 한 번 직렬화할 때 할당한 바이트 수를 출력한다.
+ */
+@EnabledIfEnvironmentVariable(named = "JPASHOP_BENCHMARK", matches = "true")
+class OrderJsonBenchmarkTest {
+
+    private static final int ORDER_COUNT = 10_000;
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 100;
+
+    @Test
+    public void 직렬화_비교() throws Exception {
+        // given
+        Result<?> orderDtos = new Result<>(OrderJsonModuleTest.orderDtos(ORDER_COUNT));
+        Result<?> orderQueryDtos = new Result<>(OrderJsonModuleTest.orderQueryDtos(ORDER_COUNT));
+        ObjectMapper reflective = OrderJsonModuleTest.reflectiveMapper();
+        ObjectMapper fast = OrderJsonModuleTest.fastMapper();
+
+        // when
+        for (int round = 0; round < 5; round++) {
+            int bytes = measure("OrderDto      reflective", reflective, orderDtos);
+            assertEquals(bytes, measure("OrderDto      module    ", fast, orderDtos));
+            bytes = measure("OrderQueryDto reflective", reflective, orderQueryDtos);
+            assertEquals(bytes, measure("OrderQueryDto module    ", fast, orderQueryDtos));
+        }
+    }
+
+    private static int measure(String name, ObjectMapper objectMapper, Object value) throws Exception {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int bytes = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            bytes = objectMapper.writeValueAsBytes(value).length;
+        }
+
+        long allocatedStart = threadMXBean.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            objectMapper.writeValueAsBytes(value);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedStart;
+
+        System.out.printf("%s time=%d us/op allocated=%d KB/op bytes=%d%n",
+                name, elapsed / ITERATIONS / 1000, allocated / ITERATIONS >> 10, bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,107 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.Result;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderJsonModuleTest {
+
+    @Test
+    public void OrderDto_기본_직렬화와_같음() throws Exception {
+        // given
+        List<OrderApiController.OrderDto> orders = orderDtos(3);
+        orders.get(1).setAddress(null);
+        orders.get(2).setOrderItems(null);
+
+        // when
+        String expected = reflectiveMapper().writeValueAsString(new Result<>(orders));
+        String result = fastMapper().writeValueAsString(new Result<>(orders));
+
+        // then
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void OrderQueryDto_기본_직렬화와_같음() throws Exception {
+        // given
+        List<OrderQueryDto> orders = orderQueryDtos(3);
+        orders.add(new OrderQueryDto(null, null, null, null, null));
+
+        // when
+        String expected = reflectiveMapper().writeValueAsString(new Result<>(orders));
+        String result = fastMapper().writeValueAsString(new Result<>(orders));
+
+        // then
+        assertEquals(expected, result);
+    }
+
+    /**
+     * 스프링 부트 기본 ObjectMapper와 같은 설정 (날짜는 ISO-8601 문자열)
+     */
+    static ObjectMapper reflectiveMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    static ObjectMapper fastMapper() {
+        return reflectiveMapper().registerModule(new OrderJsonModule());
+    }
+
+    /**
+     * 주문마다 주문상품 2개, 주문 시각은 초 단위 0인 값도 섞는다 (LocalDateTime.toString()과 포맷이 다른 경우)
+     */
+    static List<OrderApiController.OrderDto> orderDtos(int count) {
+        List<OrderApiController.OrderDto> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Member member = new Member();
+            member.setName("member" + i);
+            Delivery delivery = new Delivery();
+            delivery.setAddress(new Address("서울", "street" + i, "1000" + i));
+
+            Order order = Order.createOrder(member, delivery,
+                    OrderItem.createReservedOrderItem(book("JPA" + i), 10000, 1),
+                    OrderItem.createReservedOrderItem(book("SPRING" + i), 20000, 2));
+            order.setId((long) i);
+            order.setOrderDate(orderDate(i));
+            result.add(new OrderApiController.OrderDto(order));
+        }
+        return result;
+    }
+
+    static List<OrderQueryDto> orderQueryDtos(int count) {
+        List<OrderQueryDto> result = new ArrayList<>(count);
+        for (long i = 0; i < count; i++) {
+            OrderQueryDto order = new OrderQueryDto(i, "member" + i, orderDate(i), OrderStatus.ORDER, new Address("서울", "street" + i, "1000" + i));
+            order.setOrderItem(List.of(
+                    new OrderItemQueryDto(i, "JPA" + i, 10000, 1),
+                    new OrderItemQueryDto(i, "SPRING" + i, 20000, 2)));
+            result.add(order);
+        }
+        return result;
+    }
+
+    private static LocalDateTime orderDate(long i) {
+        return i % 2 == 0
+                ? LocalDateTime.of(2024, 1, 1, 10, 0)
+                : LocalDateTime.of(2024, 1, 1, 10, 0, 5, 123_000_000);
+    }
+
+    private static Book book(String name) {
+        Book book = new Book();
+        book.setName(name);
+        return book;
+    }
+}
@@ -0,0 +1,60 @@
+package jpabook.jpashop.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 복제본 주소를 원본과 같은 메모리 DB로 두고(커넥션 풀만 따로) 서비스 호출이 어느 풀로 가는지 확인한다
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing",
+        "jpashop.datasource.routing.enabled=true",
+        "jpashop.datasource.routing.replica-urls=jdbc:h2:mem:routing",
+        "decorator.datasource.exclude-beans=replicationRoutingDataSource"
+})
+class DataSourceRoutingConfigTest {
+
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    public void 서비스_읽기_전용_메서드는_복제본() throws Exception {
+        // given
+        double replica = routed("replica-0");
+        double primary = routed(ReplicationRoutingDataSource.PRIMARY);
+
+        // when
+        memberService.findMembers();
+
+        // then
+        assertEquals(replica + 1, routed("replica-0"));
+        assertEquals(primary, routed(ReplicationRoutingDataSource.PRIMARY));
+    }
+
+    @Test
+    public void 서비스_쓰기_메서드는_원본() throws Exception {
+        // given
+        double replica = routed("replica-0");
+        Member member = new Member();
+        member.setName("routing-kim");
+
+        // when
+        Long memberId = memberService.join(member);
+
+        // then
+        assertEquals(replica, routed("replica-0"));
+        assertEquals("routing-kim", memberService.findOne(memberId).getName());
+    }
+
+    private double routed(String target) {
+        return meterRegistry.counter("jpashop.datasource.route", "target", target).count();
+    }
+}
@@ -0,0 +1,186 @@
+package jpabook.jpashop.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GzipCompressionFilterTest {
+
+    private static final String JSON = "{\"data\":[" + "{\"orderId\":1,\"name\":\"김영한\",\"orderStatus\":\"ORDER\"},".repeat(200) + "{}]}";
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    GzipCompressionFilter filter = new GzipCompressionFilter(meterRegistry, 1024, 6, 1, 256, 4096);
+
+    @Test
+    public void gzip_협상() throws Exception {
+        assertTrue(GzipCompressionFilter.acceptsGzip("gzip, deflate, br"));
+        assertTrue(GzipCompressionFilter.acceptsGzip("br;q=1.0, gzip;q=0.5"));
+        assertTrue(GzipCompressionFilter.acceptsGzip("*"));
+        assertFalse(GzipCompressionFilter.acceptsGzip(null));
+        assertFalse(GzipCompressionFilter.acceptsGzip("br"));
+        assertFalse(GzipCompressionFilter.acceptsGzip("gzip;q=0"));
+        assertFalse(GzipCompressionFilter.acceptsGzip("*, gzip;q=0"));
+    }
+
+    @Test
+    public void 큰_JSON_응답은_압축() throws Exception {
+        // given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when (같은 압축기를 재사용해도 결과가 같아야 한다)
+        for (int i = 0; i < 3; i++) {
+            response = new MockHttpServletResponse();
+            filter.doFilter(gzipRequest(), response, writing(JSON));
+        }
+
+        // then
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        byte[] compressed = response.getContentAsByteArray();
+        assertEquals(compressed.length, response.getContentLength());
+        assertTrue(compressed.length < JSON.getBytes(StandardCharsets.UTF_8).length / 5);
+        assertEquals(JSON, gunzip(compressed));
+
+        assertEquals(3, meterRegistry.get("jpashop.response.compression").timer().count());
+        assertTrue(meterRegistry.get("jpashop.response.compression.saved").counter().count() > 0);
+    }
+
+    @Test
+    public void 작은_응답은_압축하지_않음() throws Exception {
+        // given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(gzipRequest(), response, writing("{\"data\":[]}"));
+
+        // then
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("{\"data\":[]}", response.getContentAsString());
+        assertEquals(11, response.getContentLength());
+    }
+
+    @Test
+    public void gzip을_받지_않으면_그대로() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v5/orders");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(request, response, writing(JSON));
+
+        // then
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(JSON, response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void 비동기_응답은_압축하지_않고_이어서_씀() throws Exception {
+        // given
+        MockHttpServletRequest request = gzipRequest();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<ServletResponse> wrapped = new AtomicReference<>();
+
+        // when (요청 쓰레드가 끝난 뒤 다른 쓰레드가 이어서 쓰는 상황)
+        filter.doFilter(request, response, new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+        }, (req, res, chain) -> {
+            req.startAsync();
+            res.setContentType("application/x-ndjson");
+            res.getOutputStream().write("{\"a\":1}\n".getBytes(StandardCharsets.UTF_8));
+            wrapped.set(res);
+        }));
+        wrapped.get().getOutputStream().write(JSON.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("{\"a\":1}\n" + JSON, response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void 논블로킹_쓰기는_비동기_전환_후에만_원래_응답으로() throws Exception {
+        // given
+        MockHttpServletRequest request = gzipRequest();
+        request.setAsyncSupported(true);
+        AtomicReference<WriteListener> registered = new AtomicReference<>();
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return false;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        registered.set(writeListener);
+                    }
+
+                    @Override
+                    public void write(int b) {
+                    }
+                };
+            }
+        };
+        WriteListener listener = new WriteListener() {
+            @Override
+            public void onWritePossible() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+        AtomicReference<ServletResponse> wrapped = new AtomicReference<>();
+
+        // when
+        filter.doFilter(request, response, new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+        }, (req, res, chain) -> {
+            // 버퍼에 모으는 동안
+            assertTrue(res.getOutputStream().isReady());
+            assertThrows(IllegalStateException.class, () -> res.getOutputStream().setWriteListener(listener));
+            req.startAsync();
+            wrapped.set(res);
+        }));
+        ServletOutputStream out = wrapped.get().getOutputStream();
+        out.setWriteListener(listener);
+
+        // then (비동기 전환 후에는 원래 응답의 스트림을 따른다)
+        assertFalse(out.isReady());
+        assertSame(listener, registered.get());
+    }
+
+    private static MockHttpServletRequest gzipRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v5/orders");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        return request;
+    }
+
+    private static MockFilterChain writing(String json) {
+        return new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+        }, (req, res, chain) -> {
+            res.setContentType("application/json");
+            res.setCharacterEncoding("UTF-8");
+            res.setContentLength(json.getBytes(StandardCharsets.UTF_8).length);
+            res.getWriter().write(json);
+        });
+    }
+
+    private static String gunzip(byte[] compressed) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PersistenceContextMetricsTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    PersistenceContextEndpoint endpoint;
+    @Autowired
+    MemberService memberService;
+
+    @Test
+    public void 컨트롤러_메서드별_로딩_엔티티_수() throws Exception {
+        // when
+        mockMvc.perform(get("/api/v1/orders")).andExpect(status().isOk());
+
+        // then (주문 2건과 회원, 배송, 주문상품, 상품)
+        PersistenceContextEndpoint.HandlerStats stats = endpoint.handlers().stream()
+                .filter(s -> s.getHandler().equals("OrderApiController.ordersV1"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(stats.getRequests() >= 1);
+        assertTrue(stats.getMaxEntitiesLoaded() >= 10, stats.toString());
+    }
+
+    @Test
+    public void 변경_감지_플러시_집계() throws Exception {
+        // given
+        Member member = new Member();
+        member.setName("pc-kim");
+        Long memberId = memberService.join(member);
+
+        // when
+        PersistenceContextStats stats = PersistenceContextCounter.start();
+        try {
+            memberService.update(memberId, "pc-lee");
+        } finally {
+            PersistenceContextCounter.stop();
+        }
+
+        // then
+        assertEquals(1, stats.getEntitiesLoaded(), stats.toString());
+        assertTrue(stats.getFlushes() >= 1, stats.toString());
+        assertTrue(stats.getDirtyChecks() >= 1, stats.toString());
+        assertTrue(stats.getFlushNanos() > 0, stats.toString());
+    }
+}
@@ -0,0 +1,30 @@
+package jpabook.jpashop.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 테스트 블록 안에서 실행된 SQL 수 검증
+ * 실패 메시지에 SQL 모양별 실행 횟수가 나오므로 어떤 SQL이 반복됐는지 바로 볼 수 있다.
+ */
+public abstract class QueryCountAssertions {
+
+    public static QueryCount assertMaxQueries(int max, QueryBlock block) throws Exception {
+        QueryCount count = countQueries(block);
+        assertTrue(count.getTotal() <= max, () -> "expected at most " + max + " queries but " + count);
+        return count;
+    }
+
+    public static QueryCount countQueries(QueryBlock block) throws Exception {
+        QueryCount count = QueryCounter.start();
+        try {
+            block.run();
+        } finally {
+            QueryCounter.stop();
+        }
+        return count;
+    }
+
+    public interface QueryBlock {
+        void run() throws Exception;
+    }
+}
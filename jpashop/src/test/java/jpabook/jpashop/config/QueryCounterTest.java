@@ -0,0 +1,78 @@
+package jpabook.jpashop.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCounterTest {
+
+    @Test
+    public void 값만_다른_SQL은_같은_모양() throws Exception {
+        // when
+        String a = QueryCounter.normalize("select * from member  where name = 'kim' and id in (1, 2, 3)");
+        String b = QueryCounter.normalize("select * from member where name = 'lee' and id in (7)");
+
+        // then
+        assertEquals("select * from member where name = ? and id in (?)", a);
+        assertEquals(a, b);
+    }
+
+    @Test
+    public void 긴_IN_목록() throws Exception {
+        // given
+        String sql = "select * from order_item where order_id in (" + "?,".repeat(99_999) + "?)";
+
+        // when
+        String shape = QueryCounter.normalize(sql);
+
+        // then
+        assertEquals("select * from order_item where order_id in (?)", shape);
+    }
+
+    @Test
+    public void 중첩_구간_모두_집계() throws Exception {
+        // given
+        QueryCount outer = QueryCounter.start();
+        QueryCount inner = QueryCounter.start();
+
+        // when
+        QueryCounter.record("select * from member where id = 1");
+        QueryCounter.stop();
+        QueryCounter.record("select * from member where id = 2");
+        QueryCounter.stop();
+        QueryCounter.record("select * from member where id = 3");
+
+        // then
+        assertEquals(1, inner.getTotal());
+        assertEquals(2, outer.getTotal());
+        assertEquals(2, outer.suspects(2).get("select * from member where id = ?"));
+    }
+
+    @Test
+    public void 다른_쓰레드_SQL은_트랜잭션에도_더함() throws Exception {
+        // given
+        QueryCount worker = QueryCounter.start();
+        QueryCounter.record("select * from order_item where order_id in (1, 2)");
+        QueryCounter.record("select * from order_item where order_id in (3)");
+        QueryCounter.stop();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            QueryCount scope = QueryCounter.start();
+
+            // when
+            QueryCounter.merge(worker);
+            QueryCounter.stop();
+
+            // then
+            QueryCount transaction = (QueryCount) TransactionSynchronizationManager.getResource(QueryCounter.class);
+            assertEquals(2, scope.getTotal());
+            assertEquals(2, transaction.getTotal());
+            assertEquals(2, transaction.suspects(2).get("select * from order_item where order_id in (?)"));
+        } finally {
+            TransactionSynchronizationManager.unbindResourceIfPossible(QueryCounter.class);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
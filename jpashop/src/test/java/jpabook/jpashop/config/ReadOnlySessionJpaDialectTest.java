@@ -0,0 +1,77 @@
+package jpabook.jpashop.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.MemberService;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OSIV처럼 EntityManager를 먼저 열어둔 상태에서 서비스 메서드를 호출한다
+ */
+@SpringBootTest
+class ReadOnlySessionJpaDialectTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    MemberService memberService;
+
+    EntityManager em;
+    Long memberId;
+
+    @BeforeEach
+    void openEntityManager() {
+        Member member = new Member();
+        member.setName("readonly-" + System.nanoTime());
+        memberId = memberService.join(member);
+
+        em = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+    }
+
+    @AfterEach
+    void closeEntityManager() {
+        TransactionSynchronizationManager.unbindResource(emf);
+        em.close();
+    }
+
+    @Test
+    public void 읽기_전용_트랜잭션_엔티티는_스냅샷_없음() throws Exception {
+        // when
+        Member member = memberService.findOne(memberId);
+
+        // then
+        Session session = em.unwrap(Session.class);
+        assertTrue(session.isReadOnly(member));
+        assertFalse(session.isDefaultReadOnly());
+    }
+
+    @Test
+    public void 읽기_전용_조회_후_같은_세션에서_수정() throws Exception {
+        // given
+        Member member = memberService.findOne(memberId);
+
+        // when
+        memberService.update(memberId, "readonly-updated-" + memberId);
+
+        // then
+        assertFalse(em.unwrap(Session.class).isReadOnly(member));
+        EntityManager other = emf.createEntityManager();
+        try {
+            other.getEntityManagerFactory().getCache().evict(Member.class);
+            assertEquals("readonly-updated-" + memberId, other.find(Member.class, memberId).getName());
+        } finally {
+            other.close();
+        }
+    }
+}
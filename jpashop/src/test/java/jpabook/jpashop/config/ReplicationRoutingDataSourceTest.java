@@ -0,0 +1,93 @@
+package jpabook.jpashop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 원본, 복제본을 서로 다른 H2 메모리 DB로 띄우고 node 테이블에 자기 이름을 넣어 어느 쪽으로 갔는지 확인한다
+ */
+class ReplicationRoutingDataSourceTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ReplicationRoutingDataSource dataSource;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate writeTx;
+    TransactionTemplate readTx;
+
+    @BeforeEach
+    void setUp() {
+        HikariDataSource primary = h2("routing-primary");
+        HikariDataSource replica = h2("routing-replica");
+        new JdbcTemplate(primary).execute("create table node(name varchar(20)); insert into node values('primary')");
+        new JdbcTemplate(replica).execute("create table node(name varchar(20)); insert into node values('replica');"
+                + "create table replica_lag(seconds int); insert into replica_lag values(0)");
+
+        dataSource = new ReplicationRoutingDataSource(primary, List.of(replica), "select seconds from replica_lag", 5, meterRegistry);
+        dataSource.checkReplicas();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTx = new TransactionTemplate(transactionManager);
+        readTx = new TransactionTemplate(transactionManager);
+        readTx.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void 읽기_전용_트랜잭션은_복제본() throws Exception {
+        // when
+        String read = readTx.execute(status -> node());
+        String write = writeTx.execute(status -> node());
+        String noTx = node();
+
+        // then
+        assertEquals("replica", read);
+        assertEquals("primary", write);
+        assertEquals("primary", noTx);
+        assertEquals(1, meterRegistry.counter("jpashop.datasource.route", "target", "replica-0").count());
+        assertEquals(2, meterRegistry.counter("jpashop.datasource.route", "target", "primary").count());
+    }
+
+    @Test
+    public void 복제_지연이_크면_원본으로() throws Exception {
+        // given
+        try (HikariDataSource replica = h2("routing-replica")) {
+            new JdbcTemplate(replica).update("update replica_lag set seconds = 30");
+        }
+
+        // when
+        dataSource.checkReplicas();
+        String read = readTx.execute(status -> node());
+
+        // then
+        assertEquals("primary", read);
+        assertEquals(1, meterRegistry.counter("jpashop.datasource.route.fallback").count());
+        assertEquals(0, meterRegistry.get("jpashop.datasource.replica.available").gauge().value());
+        assertEquals(30, meterRegistry.get("jpashop.datasource.replica.lag").gauge().value());
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    // 메모리 DB는 마지막 커넥션이 닫힐 때 사라지므로 tearDown에서 풀을 닫으면 다음 테스트는 빈 DB로 시작한다
+    private static HikariDataSource h2(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name);
+        dataSource.setUsername("sa");
+        return dataSource;
+    }
+}
@@ -0,0 +1,40 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+
+/**
+ * 벤치마크용 대량 주문 생성 (트랜잭션 안에서 호출)
+ * 주문마다 배송 1건, 주문상품 1건을 만들고 1000건마다 flush, clear 한다.
+ *
+ * @return 생성 후 전체 주문 수
+ */
+public abstract class BenchmarkOrders {
+
+    public static int create(EntityManager em, int orderCount) {
+        Member member = new Member();
+        member.setName("benchmark-" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(orderCount);
+        em.persist(book);
+
+        for (int i = 0; i < orderCount; i++) {
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+            em.persist(Order.createOrder(member, delivery, OrderItem.createOrderItem(book, 10000, 1)));
+            if (i % 1000 == 999) {
+                em.flush();
+                em.clear();
+                member = em.find(Member.class, member.getId());
+                book = em.find(Book.class, book.getId());
+            }
+        }
+        em.flush();
+        return em.createQuery("select count(o) from Order o", Long.class).getSingleResult().intValue();
+    }
+}
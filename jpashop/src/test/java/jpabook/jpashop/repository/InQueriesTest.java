@@ -0,0 +1,69 @@
+package jpabook.jpashop.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InQueriesTest {
+
+    @Test
+    public void 묶음은_2의_거듭제곱_크기로_채움() throws Exception {
+        // given
+        List<Long> ids = LongStream.rangeClosed(1, 11).boxed().collect(Collectors.toList());
+
+        // when
+        List<List<Long>> chunks = InQueries.chunks(ids, 8);
+
+        // then (8 + 3개 -> 8 + 4개, 모자란 자리는 마지막 값)
+        assertEquals(2, chunks.size());
+        assertEquals(LongStream.rangeClosed(1, 8).boxed().toList(), chunks.get(0));
+        assertEquals(List.of(9L, 10L, 11L, 11L), chunks.get(1));
+    }
+
+    @Test
+    public void 중복_값은_한번만() throws Exception {
+        // when
+        List<List<Long>> chunks = InQueries.chunks(List.of(1L, 1L, 2L, 2L, 3L), 4);
+
+        // then
+        assertEquals(List.of(List.of(1L, 2L, 3L, 3L)), chunks);
+    }
+
+    @Test
+    public void 빈_목록은_쿼리를_실행하지_않음() throws Exception {
+        // given
+        List<List<Long>> executed = new ArrayList<>();
+
+        // when
+        long count = InQueries.<Long, Long>stream(List.of(), 4, chunk -> {
+            executed.add(chunk);
+            return chunk;
+        }).count();
+
+        // then
+        assertEquals(0, count);
+        assertTrue(executed.isEmpty());
+    }
+
+    @Test
+    public void SQL_모양은_몇_개로_고정() throws Exception {
+        // when
+        List<Integer> sizes = LongStream.rangeClosed(1, 128)
+                .mapToObj(n -> InQueries.chunks(LongStream.rangeClosed(1, n).boxed().toList(), 128).get(0).size())
+                .distinct()
+                .toList();
+
+        // then
+        assertEquals(List.of(1, 2, 4, 8, 16, 32, 64, 128), sizes);
+    }
+
+    @Test
+    public void 묶음_크기는_2의_거듭제곱만() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> InQueries.chunks(List.of(1L), 100));
+    }
+}
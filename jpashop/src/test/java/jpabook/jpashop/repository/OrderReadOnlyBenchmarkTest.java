@@ -0,0 +1,84 @@
+package jpabook.jpashop.repository;
+
+import com.sun.management.ThreadMXBean;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.domain.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 주문 10만 건을 findAllWithItem으로 읽을 때 읽기 전용 세션과 일반 세션 비교 (JPASHOP_BENCHMARK=true 일 때만 실행)
+ * OSIV처럼 EntityManager를 먼저 열어두고 readOnly 트랜잭션과 일반 트랜잭션으로 각각 읽는다.
+ * - 시간 : 조회부터 커밋(일반 트랜잭션은 변경 감지 포함)까지
+ * - 할당 : 그 동안 이 쓰레드가 할당한 바이트
+ * - 유지 : 커밋 직후 GC 후에도 영속성 컨텍스트에 남아 있는 힙
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "JPASHOP_BENCHMARK", matches = "true")
+class OrderReadOnlyBenchmarkTest {
+
+    private static final int ORDER_COUNT = 100_000;
+
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void 읽기_전용_세션_비교() throws Exception {
+        // given
+        int total = transactionTemplate.execute(status -> BenchmarkOrders.create(em, ORDER_COUNT));
+
+        // when
+        for (int round = 0; round < 3; round++) {
+            measure("read-write", false, total);
+            measure("read-only ", true, total);
+        }
+    }
+
+    private void measure(String name, boolean readOnly, int total) {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(readOnly);
+
+        EntityManager em = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+        try {
+            long baseline = usedHeap();
+            long allocatedStart = threadMXBean.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            List<Order> orders = template.execute(status -> orderRepository.findAllWithItem());
+            long elapsed = System.nanoTime() - start;
+            long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedStart;
+            long retained = usedHeap() - baseline;
+
+            assertEquals(total, orders.size());
+            System.out.printf("%s orders=%d time=%d ms allocated=%d MB retained=%d MB%n",
+                    name, orders.size(), elapsed / 1_000_000, allocated >> 20, retained >> 20);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            em.close();
+        }
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,156 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class OrderRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+
+    @Test
+    public void 커서_페이징() throws Exception {
+        // given
+        createOrders(5);
+        List<Long> allIds = em.createQuery("select o.id from Order o order by o.id", Long.class)
+                .getResultList();
+
+        // when
+        List<Long> pagedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            List<Order> page = orderRepository.findAllWithMemberDeliveryAfter(CursorResult.decode(cursor), 2);
+            page.forEach(o -> pagedIds.add(o.getId()));
+            Long lastId = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+            cursor = CursorResult.next(page.size(), 2, lastId);
+        } while (cursor != null);
+
+        // then
+        assertEquals(allIds, pagedIds);
+    }
+
+    @Test
+    public void 커서_페이징_DTO() throws Exception {
+        // given
+        createOrders(3);
+        List<Long> allIds = em.createQuery("select o.id from Order o order by o.id", Long.class)
+                .getResultList();
+
+        // when
+        List<OrderQueryDto> firstPage = orderQueryRepository.findAllByDto_cursor(0L, 2);
+        List<OrderQueryDto> secondPage = orderQueryRepository.findAllByDto_cursor(firstPage.get(1).getOrderId(), 2);
+
+        // then
+        assertEquals(allIds.subList(0, 2), firstPage.stream().map(OrderQueryDto::getOrderId).toList());
+        assertEquals(allIds.subList(2, 4), secondPage.stream().map(OrderQueryDto::getOrderId).toList());
+        assertNotNull(secondPage.get(1).getOrderItem());
+    }
+
+    @Test
+    public void 주문검색_쿼리플랜_재사용() throws Exception {
+        // given
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        for (OrderStatus status : new OrderStatus[]{null, OrderStatus.ORDER}) {
+            for (String name : new String[]{null, "워밍업"}) {
+                orderRepository.findAll(search(name, status));
+            }
+        }
+        long missCount = statistics.getQueryPlanCacheMissCount();
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            orderRepository.findAll(search("회원" + i, OrderStatus.ORDER));
+            orderRepository.findAll(search(" 회원" + i + " ", null));
+            orderRepository.findAll(search("", OrderStatus.CANCEL));
+        }
+
+        // then
+        assertEquals(missCount, statistics.getQueryPlanCacheMissCount());
+    }
+
+    /**
+     * 검색이 JPQL을 직접 만들지 않고 Order 엔티티의 이름 있는 쿼리를 쓰는지 확인
+     * 이어붙인 JPQL도 쿼리 문자열이 같아 플랜 캐시 통계로는 구분되지 않으므로, 이름 있는 쿼리를 잠시 바꿔 결과가 따라오는지 본다.
+     */
+    @Test
+    public void 주문검색은_이름있는_쿼리_사용() throws Exception {
+        // given
+        createOrders(2);
+        assertFalse(orderRepository.findAll(search(null, OrderStatus.ORDER)).isEmpty());
+        String searchByStatus = "select o from Order o join o.member m where o.status = :status";
+
+        // when
+        emf.addNamedQuery("Order.searchByStatus", em.createQuery(searchByStatus + " and o.id < 0", Order.class));
+        List<Order> orders;
+        try {
+            orders = orderRepository.findAll(search(null, OrderStatus.ORDER));
+        } finally {
+            emf.addNamedQuery("Order.searchByStatus", em.createQuery(searchByStatus, Order.class));
+        }
+
+        // then
+        assertTrue(orders.isEmpty());
+    }
+
+    @Test
+    public void 잘못된_커서() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> CursorResult.decode("not-a-cursor"));
+    }
+
+    private static OrderSearch search(String memberName, OrderStatus orderStatus) {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(memberName);
+        orderSearch.setOrderStatus(orderStatus);
+        return orderSearch;
+    }
+
+    private void createOrders(int count) {
+        Member member = new Member();
+        member.setName("커서회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(count);
+        em.persist(book);
+
+        for (int i = 0; i < count; i++) {
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+            Order order = Order.createOrder(member, delivery, OrderItem.createOrderItem(book, 10000, 1));
+            em.persist(order);
+        }
+        em.flush();
+        em.clear();
+    }
+}
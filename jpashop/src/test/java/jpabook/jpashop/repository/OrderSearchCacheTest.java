@@ -0,0 +1,101 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 주문 검색 쿼리 캐시 테스트
+ * 쿼리 캐시는 커밋된 변경만 기준으로 동작하므로 @Transactional을 붙이지 않는다.
+ */
+@SpringBootTest
+class OrderSearchCacheTest {
+
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    EntityManagerFactory emf;
+
+    CacheRegionStatistics orderSearchRegion;
+    Member member;
+    Book book;
+
+    @BeforeEach
+    void setUp() {
+        orderSearchRegion = emf.unwrap(SessionFactory.class).getStatistics()
+                .getQueryRegionStatistics(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+        member = new Member();
+        member.setName("검색회원-" + UUID.randomUUID());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        memberService.join(member);
+
+        book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+    }
+
+    @Test
+    public void 같은_검색조건_캐시() throws Exception {
+        // given
+        orderService.order(member.getId(), book.getId(), 1);
+        long hitCount = orderSearchRegion.getHitCount();
+
+        // when
+        List<Order> first = orderService.findOrders(search(" " + member.getName() + " ", OrderStatus.ORDER));
+        List<Order> second = orderService.findOrders(search(member.getName(), OrderStatus.ORDER));
+
+        // then
+        assertEquals(1, first.size());
+        assertEquals(1, second.size());
+        assertEquals(hitCount + 1, orderSearchRegion.getHitCount());
+    }
+
+    @Test
+    public void 주문생성_취소시_캐시_무효화() throws Exception {
+        // given
+        Long orderId = orderService.order(member.getId(), book.getId(), 1);
+        assertEquals(1, orderService.findOrders(search(member.getName(), OrderStatus.ORDER)).size());
+
+        // when
+        orderService.order(member.getId(), book.getId(), 1);
+        List<Order> afterOrder = orderService.findOrders(search(member.getName(), OrderStatus.ORDER));
+        orderService.cancelOrder(orderId);
+        List<Order> afterCancel = orderService.findOrders(search(member.getName(), OrderStatus.ORDER));
+
+        // then
+        assertEquals(2, afterOrder.size());
+        assertEquals(1, afterCancel.size());
+    }
+
+    private OrderSearch search(String memberName, OrderStatus orderStatus) {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(memberName);
+        orderSearch.setOrderStatus(orderStatus);
+        return orderSearch;
+    }
+}
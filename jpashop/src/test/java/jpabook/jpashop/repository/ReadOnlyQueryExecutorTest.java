@@ -0,0 +1,51 @@
+package jpabook.jpashop.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ReadOnlyQueryExecutorTest {
+
+    private static final int TASK_COUNT = 16;
+    private static final long TASK_MILLIS = 100;
+
+    @Autowired
+    ReadOnlyQueryExecutor queryExecutor;
+
+    /**
+     * 한꺼번에 넘긴 작업도 요청 쓰레드로 밀리지 않고 작업 쓰레드들이 동시에 나눠 실행한다
+     * CPU 수와 상관없이 확인할 수 있도록 작업은 네트워크 대기처럼 잠만 잔다.
+     */
+    @Test
+    public void 넘긴_작업은_작업_쓰레드에서_동시에_실행() throws Exception {
+        // given
+        List<ReadOnlyQueryExecutor.QueryTask<String>> tasks = new ArrayList<>();
+        long start = System.nanoTime();
+
+        // when
+        for (int i = 0; i < TASK_COUNT; i++) {
+            tasks.add(queryExecutor.submit(em -> {
+                try {
+                    Thread.sleep(TASK_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+                return Thread.currentThread().getName();
+            }));
+        }
+        List<String> threadNames = queryExecutor.joinAll(tasks);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // then (기본 설정 parallelism 4 -> 한 번에 4개씩)
+        assertTrue(threadNames.stream().allMatch(name -> name.startsWith("query-executor-")), threadNames.toString());
+        assertTrue(threadNames.stream().distinct().count() > 1, threadNames.toString());
+        assertTrue(elapsedMillis < TASK_COUNT * TASK_MILLIS / 2, "elapsed=" + elapsedMillis + "ms");
+    }
+}
@@ -0,0 +1,41 @@
+package jpabook.jpashop.repository.order.query;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongKeyMapTest {
+
+    @Test
+    public void 크기를_넘겨도_늘어나며_모두_찾음() throws Exception {
+        // given
+        LongKeyMap<String> map = new LongKeyMap<>(2);
+
+        // when
+        for (long key = -500; key < 10_000; key++) {
+            map.put(key, "v" + key);
+        }
+
+        // then
+        assertEquals(10_500, map.size());
+        for (long key = -500; key < 10_000; key++) {
+            assertEquals("v" + key, map.get(key));
+        }
+        assertNull(map.get(10_000));
+    }
+
+    @Test
+    public void 같은_키는_덮어씀() throws Exception {
+        // given
+        LongKeyMap<String> map = new LongKeyMap<>(16);
+        map.put(0, "a");
+
+        // when
+        String old = map.put(0, "b");
+
+        // then
+        assertEquals("a", old);
+        assertEquals("b", map.get(0));
+        assertEquals(1, map.size());
+    }
+}
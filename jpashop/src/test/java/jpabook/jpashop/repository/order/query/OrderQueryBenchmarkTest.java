@@ -0,0 +1,93 @@
+package jpabook.jpashop.repository.order.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.repository.BenchmarkOrders;
+import jpabook.jpashop.repository.Result;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 주문 5만 건 DTO 조회 V5(IN 쿼리), V5.2(병렬 IN 쿼리), V6(플랫 조인) 비교 (JPASHOP_BENCHMARK=true 일 때만 실행)
+ * 두 테스트가 같은 컨텍스트(같은 H2 메모리 DB)를 쓰므로 주문은 처음 한 번만 만든다.
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "JPASHOP_BENCHMARK", matches = "true")
+class OrderQueryBenchmarkTest {
+
+    private static final int ORDER_COUNT = 50_000;
+    private static final int ROUNDS = 5;
+
+    private static int total;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    void createOrders() {
+        if (total == 0) {
+            total = transactionTemplate.execute(status -> BenchmarkOrders.create(em, ORDER_COUNT));
+        }
+    }
+
+    @Test
+    public void DTO_조회_방식_비교() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            measure("v5   optimization", total, () -> orderQueryRepository.findAllByDto_optimization());
+            measure("v5.2 parallel    ", total, () -> orderQueryRepository.findAllByDto_parallel());
+            //V6는 주문상품 단위 행이라 주문 수보다 많다
+            measure("v6   flat        ", total, () -> orderQueryRepository.findAllByDto_flat());
+            measure("v6   flat grouped", total, () -> orderQueryRepository.findAllByDto_flatGrouped());
+        }
+    }
+
+    /**
+     * 조회(+재조립) 시간, JSON 직렬화 시간, 응답 크기 비교
+     * v6 raw는 재조립 전 flat 행을 그대로 내리던 이전 V6 응답이다.
+     */
+    @Test
+    public void 응답_크기_비교() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            serialize("v5   objects ", () -> orderQueryRepository.findAllByDto_optimization());
+            serialize("v6   raw rows", () -> orderQueryRepository.findAllByDto_flat());
+            serialize("v6   objects ", () -> orderQueryRepository.findAllByDto_flatGrouped());
+            serialize("v6.1 columns ", () -> new OrderColumnsDto(orderQueryRepository.findAllByDto_flatGrouped()));
+        }
+    }
+
+    private void measure(String name, int minRows, Supplier<List<?>> query) {
+        long start = System.nanoTime();
+        List<?> result = transactionTemplate.execute(status -> query.get());
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(result.size() >= minRows);
+        System.out.printf("%s rows=%d time=%d ms%n", name, result.size(), elapsed / 1_000_000);
+    }
+
+    private void serialize(String name, Supplier<Object> query) throws Exception {
+        long start = System.nanoTime();
+        Object data = transactionTemplate.execute(status -> query.get());
+        long queried = System.nanoTime();
+        byte[] json = objectMapper.writeValueAsBytes(new Result<>(data));
+        long serialized = System.nanoTime();
+
+        assertTrue(json.length > total);
+        System.out.printf("%s query=%d ms json=%d ms bytes=%d%n",
+                name, (queried - start) / 1_000_000, (serialized - queried) / 1_000_000, json.length);
+    }
+}
@@ -0,0 +1,65 @@
+package jpabook.jpashop.repository.order.query;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 커넥션 풀이 작을 때 병렬 조회가 커넥션을 기다리다 실패하지 않는지 확인
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=1000"
+})
+class OrderQueryRepositoryPoolTest {
+
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Test
+    public void 작은_커넥션_풀에서_동시_병렬_조회() throws Exception {
+        // given
+        assertEquals(2, dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize());
+        List<Long> expected = orderIds(orderQueryRepository.findAllByDto_parallel(1));
+        int callers = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(callers);
+
+        // when
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers * 4; i++) {
+                futures.add(executorService.submit(() -> orderIds(orderQueryRepository.findAllByDto_parallel(1))));
+            }
+
+            // then
+            for (Future<List<Long>> future : futures) {
+                assertEquals(expected, future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static List<Long> orderIds(List<OrderQueryDto> orders) {
+        List<Long> orderIds = new ArrayList<>();
+        for (OrderQueryDto order : orders) {
+            assertNotNull(order.getOrderItem());
+            orderIds.add(order.getOrderId());
+        }
+        return orderIds;
+    }
+}
@@ -0,0 +1,89 @@
+package jpabook.jpashop.repository.order.query;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class OrderQueryRepositoryTest {
+
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+
+    @Test
+    public void 병렬_조회_결과는_IN_쿼리와_같음() throws Exception {
+        // given
+        List<OrderQueryDto> expected = orderQueryRepository.findAllByDto_optimization();
+        expected.sort(Comparator.comparing(OrderQueryDto::getOrderId));
+
+        // when (주문마다 IN 쿼리 묶음을 따로 만든다)
+        List<OrderQueryDto> result = orderQueryRepository.findAllByDto_parallel(1);
+
+        // then
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getOrderId(), result.get(i).getOrderId());
+            assertEquals(itemNames(expected.get(i)), itemNames(result.get(i)));
+        }
+    }
+
+    @Test
+    public void 채운_묶음도_결과는_같음() throws Exception {
+        // given
+        List<OrderQueryDto> expected = orderQueryRepository.findAllByDto_optimization();
+        expected.sort(Comparator.comparing(OrderQueryDto::getOrderId));
+
+        // when (주문 2개 묶음이 마지막 id로 채워져 IN 목록이 4개가 된다)
+        List<OrderQueryDto> result = orderQueryRepository.findAllByDto_parallel(3);
+
+        // then
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(itemNames(expected.get(i)), itemNames(result.get(i)));
+        }
+    }
+
+    @Test
+    public void 플랫_결과를_주문_단위로_묶음() throws Exception {
+        // given
+        List<OrderQueryDto> expected = orderQueryRepository.findAllByDto_optimization();
+        expected.sort(Comparator.comparing(OrderQueryDto::getOrderId));
+
+        // when
+        List<OrderQueryDto> result = orderQueryRepository.findAllByDto_flatGrouped();
+        result.sort(Comparator.comparing(OrderQueryDto::getOrderId));
+
+        // then
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), result.get(i).getName());
+            assertEquals(itemNames(expected.get(i)), itemNames(result.get(i)));
+        }
+    }
+
+    @Test
+    public void 섞인_행도_처음_나온_주문_순서대로() throws Exception {
+        // given
+        List<OrderFlatDto> rows = List.of(
+                new OrderFlatDto(2L, "B", null, null, null, "item1", 100, 1),
+                new OrderFlatDto(1L, "A", null, null, null, "item2", 200, 2),
+                new OrderFlatDto(2L, "B", null, null, null, "item3", 300, 3));
+
+        // when
+        List<OrderQueryDto> result = OrderQueryRepository.groupByOrder(rows);
+
+        // then
+        assertEquals(List.of(2L, 1L), result.stream().map(OrderQueryDto::getOrderId).toList());
+        assertEquals(List.of("item1", "item3"), itemNames(result.get(0)));
+        assertEquals(List.of("item2"), itemNames(result.get(1)));
+    }
+
+    private static List<String> itemNames(OrderQueryDto order) {
+        return order.getOrderItem().stream().map(OrderItemQueryDto::getItemName).sorted().toList();
+    }
+}
@@ -0,0 +1,91 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 상품 2차 캐시 테스트
+ * 2차 캐시는 커밋 이후에 반영되므로 @Transactional을 붙이지 않는다.
+ */
+@SpringBootTest
+class ItemServiceTest {
+
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    CacheRegionStatistics itemRegion;
+
+    @BeforeEach
+    void setUp() {
+        itemRegion = emf.unwrap(SessionFactory.class).getStatistics().getDomainDataRegionStatistics("item");
+    }
+
+    @Test
+    public void 상품조회_2차캐시() throws Exception {
+        // given
+        Book book = createBook(10);
+        long hitCount = itemRegion.getHitCount();
+
+        // when
+        itemService.findOne(book.getId());
+        itemService.findOne(book.getId());
+
+        // then
+        assertTrue(itemRegion.getHitCount() >= hitCount + 2);
+    }
+
+    @Test
+    public void 상품수정시_캐시_갱신() throws Exception {
+        // given
+        Book book = createBook(10);
+        itemService.findOne(book.getId());
+
+        // when
+        itemService.updateItem(book.getId(), "수정된 JPA", 20000, 5);
+
+        // then
+        Item findItem = itemService.findOne(book.getId());
+        assertEquals("수정된 JPA", findItem.getName());
+        assertEquals(5, findItem.getStockQuantity());
+    }
+
+    @Test
+    public void 벌크_재고차감시_캐시_무효화() throws Exception {
+        // given
+        Book book = createBook(10);
+        itemService.findOne(book.getId());
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> itemRepository.decreaseStock(book.getId(), 3));
+
+        // then
+        assertEquals(7, itemService.findOne(book.getId()).getStockQuantity());
+    }
+
+    private Book createBook(int stockQuantity) {
+        Book book = new Book();
+        book.setName("캐시 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+}
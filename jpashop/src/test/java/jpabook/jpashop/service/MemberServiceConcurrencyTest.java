@@ -0,0 +1,125 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Member;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 동시에 가입해도 같은 이름의 회원이 두 명 생기지 않는지 확인
+ * 실제로 커밋이 일어나야 하므로 @Transactional을 붙이지 않고, 블룸 필터를 켠 상태로 띄운다.
+ */
+@SpringBootTest(properties = "jpashop.member.name-filter.enabled=true")
+class MemberServiceConcurrencyTest {
+
+    private static final int THREAD_COUNT = 16;
+
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    MemberNameFilter memberNameFilter;
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void 같은_이름_동시_가입() throws Exception {
+        // given
+        String name = "동시회원-" + UUID.randomUUID();
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger duplicateCount = new AtomicInteger();
+
+        // when
+        runConcurrently(() -> {
+            try {
+                memberService.join(createMember(name));
+                successCount.incrementAndGet();
+            } catch (IllegalStateException e) {
+                assertEquals("이미 존재하는 회원입니다.", e.getMessage());
+                duplicateCount.incrementAndGet();
+            }
+        });
+
+        // then
+        assertEquals(1, successCount.get());
+        assertEquals(THREAD_COUNT - 1, duplicateCount.get());
+        assertEquals(1L, countByName(name));
+    }
+
+    @Test
+    public void 대량_동시_가입() throws Exception {
+        // given
+        // 쓰레드마다 같은 이름 목록을 순서대로 가입 시도한다
+        String prefix = "대량회원-" + UUID.randomUUID() + "-";
+        int nameCount = 200;
+        AtomicInteger successCount = new AtomicInteger();
+
+        // when
+        runConcurrently(() -> {
+            for (int n = 0; n < nameCount; n++) {
+                try {
+                    memberService.join(createMember(prefix + n));
+                    successCount.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    // 다른 쓰레드가 먼저 가입
+                }
+            }
+        });
+
+        // then
+        assertEquals(nameCount, successCount.get());
+        Long memberCount = em.createQuery("select count(m) from Member m where m.name like :prefix", Long.class)
+                .setParameter("prefix", prefix + "%")
+                .getSingleResult();
+        assertEquals(nameCount, memberCount);
+        for (int n = 0; n < nameCount; n++) {
+            assertTrue(memberNameFilter.mightContain(prefix + n));
+        }
+    }
+
+    @Test
+    public void 시작시_기존_회원_이름_적재() throws Exception {
+        // InitDb에서 저장한 회원
+        assertTrue(memberNameFilter.mightContain("김영한"));
+        assertTrue(memberNameFilter.mightContain("사람이름"));
+    }
+
+    // THREAD_COUNT개 쓰레드가 동시에 출발하도록 맞춰서 실행
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            futures.add(executorService.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+    }
+
+    private long countByName(String name) {
+        return em.createQuery("select count(m) from Member m where m.name = :name", Long.class)
+                .setParameter("name", name)
+                .getSingleResult();
+    }
+
+    private Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        return member;
+    }
+}
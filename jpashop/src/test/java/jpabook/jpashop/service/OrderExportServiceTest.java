@@ -0,0 +1,49 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+class OrderExportServiceTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderExportService orderExportService;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    public void 주문_NDJSON_내보내기() throws Exception {
+        // given
+        Long orderCount = em.createQuery("select count(o) from Order o", Long.class).getSingleResult();
+        Long itemCount = em.createQuery("select count(oi) from OrderItem oi", Long.class).getSingleResult();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        long exported = orderExportService.exportOrders(out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(orderCount, exported);
+        assertEquals(orderCount, lines.length);
+
+        int exportedItems = 0;
+        for (String line : lines) {
+            JsonNode order = objectMapper.readTree(line);
+            exportedItems += order.get("orderItem").size();
+        }
+        assertEquals(itemCount, exportedItems);
+    }
+}
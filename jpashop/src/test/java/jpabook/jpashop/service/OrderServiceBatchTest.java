@@ -0,0 +1,118 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * placeOrders로 주문을 한 번에 처리하는 테스트
+ * 처리량 비교(order() 반복 vs placeOrders)는 JPASHOP_BENCHMARK=true 일 때만 실행한다.
+ * 실제로 커밋이 일어나야 비교가 되므로 테스트에 @Transactional을 붙이지 않는다.
+ */
+@SpringBootTest
+class OrderServiceBatchTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderServiceBatchTest.class);
+
+    private static final int ORDER_COUNT = 300;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    ItemService itemService;
+
+    @Test
+    public void 대량주문() throws Exception {
+        // given
+        Member member = createMember();
+        Item book1 = createBook(ORDER_COUNT);
+        Item book2 = createBook(ORDER_COUNT * 2);
+
+        List<OrderCommand> commands = new ArrayList<>();
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            commands.add(new OrderCommand(member.getId(), List.of(
+                    new OrderCommand.OrderLine(book1.getId(), 1),
+                    new OrderCommand.OrderLine(book2.getId(), 2))));
+        }
+
+        // when
+        List<Long> orderIds = orderService.placeOrders(commands);
+
+        // then
+        assertEquals(ORDER_COUNT, orderIds.size());
+        Long orderItemCount = em.createQuery("select count(oi) from OrderItem oi where oi.order.id in :orderIds", Long.class)
+                .setParameter("orderIds", orderIds)
+                .getSingleResult();
+        assertEquals(ORDER_COUNT * 2, orderItemCount);
+        assertEquals(0, itemService.findOne(book1.getId()).getStockQuantity());
+        assertEquals(0, itemService.findOne(book2.getId()).getStockQuantity());
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "JPASHOP_BENCHMARK", matches = "true")
+    public void 주문_처리량_비교() throws Exception {
+        // given
+        Member member = createMember();
+        Item single = createBook(ORDER_COUNT);
+        Item batch = createBook(ORDER_COUNT);
+
+        List<OrderCommand> commands = new ArrayList<>();
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            commands.add(OrderCommand.of(member.getId(), batch.getId(), 1));
+        }
+
+        // when
+        long singleStart = System.nanoTime();
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            orderService.order(member.getId(), single.getId(), 1);
+        }
+        long singleElapsed = System.nanoTime() - singleStart;
+
+        long batchStart = System.nanoTime();
+        orderService.placeOrders(commands);
+        long batchElapsed = System.nanoTime() - batchStart;
+
+        // then
+        log.info("order() x {} = {} ms ({} orders/s), placeOrders() = {} ms ({} orders/s)",
+                ORDER_COUNT,
+                singleElapsed / 1_000_000, Math.round(ORDER_COUNT / (singleElapsed / 1e9)),
+                batchElapsed / 1_000_000, Math.round(ORDER_COUNT / (batchElapsed / 1e9)));
+        assertEquals(0, itemService.findOne(single.getId()).getStockQuantity());
+        assertEquals(0, itemService.findOne(batch.getId()).getStockQuantity());
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("배치회원-" + UUID.randomUUID());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        memberService.join(member);
+        return member;
+    }
+
+    private Item createBook(int stockQuantity) {
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+}
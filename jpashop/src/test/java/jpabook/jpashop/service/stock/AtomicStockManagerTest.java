@@ -0,0 +1,111 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 인기 상품 하나에 여러 쓰레드가 동시에 주문해도 초과판매, 갱신 손실이 없는지 확인
+ * 기존 방식과의 처리량 비교는 JPASHOP_BENCHMARK=true 일 때만 실행한다.
+ * 커밋된 결과를 확인해야 하므로 @Transactional을 붙이지 않는다.
+ */
+@SpringBootTest(properties = "jpashop.stock.mode=atomic")
+class AtomicStockManagerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AtomicStockManagerTest.class);
+
+    private static final int THREAD_COUNT = 8;
+    private static final int STOCK = 100;
+    private static final int ORDER_ATTEMPTS = 400;
+
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void 동시주문_초과판매_없음() throws Exception {
+        // given
+        Member member = createMember();
+        Item item = createBook(STOCK);
+
+        // when
+        StockLoad result = StockLoad.hammer(THREAD_COUNT, ORDER_ATTEMPTS, () -> orderService.order(member.getId(), item.getId(), 1));
+
+        // then
+        assertEquals(STOCK, result.success.get());
+        assertEquals(ORDER_ATTEMPTS - STOCK, result.soldOut.get());
+        assertEquals(0, result.failed.get());
+        assertEquals(0, itemService.findOne(item.getId()).getStockQuantity());
+    }
+
+    /**
+     * 기존 방식(엔티티 변경감지)과 비교
+     * 같은 부하에서 재고 차감이 갱신 손실로 사라지는지, 처리량은 얼마나 나오는지 로그로 남긴다.
+     */
+    @Test
+    @EnabledIfEnvironmentVariable(named = "JPASHOP_BENCHMARK", matches = "true")
+    public void 엔티티_변경감지_방식과_비교() throws Exception {
+        // given
+        Member member = createMember();
+        Item item = createBook(STOCK);
+        OrderService entityOrderService = new OrderService(orderRepository, memberRepository, itemRepository, new EntityStockManager());
+
+        // when
+        StockLoad result = StockLoad.hammer(THREAD_COUNT, ORDER_ATTEMPTS, () -> transactionTemplate.executeWithoutResult(
+                status -> entityOrderService.order(member.getId(), item.getId(), 1)));
+
+        // then
+        int stockLeft = itemService.findOne(item.getId()).getStockQuantity();
+        log.info("entity : success={}, soldOut={}, failed={}, stockLeft={} (lost updates={}), {} orders/s",
+                result.success.get(), result.soldOut.get(), result.failed.get(), stockLeft,
+                result.success.get() - (STOCK - stockLeft), Math.round(result.ordersPerSecond()));
+        assertTrue(result.success.get() >= STOCK - stockLeft);
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("재고회원-" + UUID.randomUUID());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        memberService.join(member);
+        return member;
+    }
+
+    private Item createBook(int stockQuantity) {
+        Book book = new Book();
+        book.setName("인기 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+}
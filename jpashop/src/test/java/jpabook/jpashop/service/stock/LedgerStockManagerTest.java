@@ -0,0 +1,277 @@
+package jpabook.jpashop.service.stock;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.StockJournal;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.StockJournalRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 메모리 재고 장부(ledger 모드) 테스트
+ * 엔티티 변경감지, 조건부 update 방식과의 처리량 비교는 JPASHOP_BENCHMARK=true 일 때만 실행한다.
+ * 커밋된 결과를 확인해야 하므로 @Transactional을 붙이지 않는다.
+ */
+@SpringBootTest(properties = "jpashop.stock.mode=ledger")
+class LedgerStockManagerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerStockManagerTest.class);
+
+    private static final int THREAD_COUNT = 8;
+    private static final int STOCK = 100;
+    private static final int ORDER_ATTEMPTS = 400;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    StockJournalRepository stockJournalRepository;
+    @Autowired
+    StockLedger stockLedger;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void 동시주문_초과판매_없음() throws Exception {
+        // given
+        Member member = createMember();
+        Item item = createBook(STOCK);
+
+        // when
+        StockLoad result = StockLoad.hammer(THREAD_COUNT, ORDER_ATTEMPTS, () -> orderService.order(member.getId(), item.getId(), 1));
+        stockLedger.flushAll();
+
+        // then
+        assertEquals(STOCK, result.success.get());
+        assertEquals(ORDER_ATTEMPTS - STOCK, result.soldOut.get());
+        assertEquals(0, stockLedger.getStock(item.getId()));
+        assertEquals(0, itemService.findOne(item.getId()).getStockQuantity());
+        assertEquals(0, journalCount(item));
+    }
+
+    /**
+     * 같은 부하에서 엔티티 변경감지(entity, 기준), JPA 조건부 update(atomic) 방식과 처리량 비교. 로그로만 남긴다.
+     * entity 방식은 갱신 손실이 있어 성공 수가 재고보다 많을 수 있으므로 처리량만 본다.
+     */
+    @Test
+    @EnabledIfEnvironmentVariable(named = "JPASHOP_BENCHMARK", matches = "true")
+    public void 조건부_update_방식과_비교() throws Exception {
+        // given
+        Member member = createMember();
+        Item ledgerItem = createBook(STOCK);
+        Item entityItem = createBook(STOCK);
+        Item item = createBook(STOCK);
+        OrderService entityOrderService = new OrderService(orderRepository, memberRepository, itemRepository, new EntityStockManager());
+        OrderService atomicOrderService = new OrderService(orderRepository, memberRepository, itemRepository, new AtomicStockManager(itemRepository));
+
+        // when
+        StockLoad ledger = StockLoad.hammer(THREAD_COUNT, ORDER_ATTEMPTS, () -> orderService.order(member.getId(), ledgerItem.getId(), 1));
+        StockLoad entity = StockLoad.hammer(THREAD_COUNT, ORDER_ATTEMPTS, () -> transactionTemplate.executeWithoutResult(
+                status -> entityOrderService.order(member.getId(), entityItem.getId(), 1)));
+        StockLoad result = StockLoad.hammer(THREAD_COUNT, ORDER_ATTEMPTS, () -> transactionTemplate.executeWithoutResult(
+                status -> atomicOrderService.order(member.getId(), item.getId(), 1)));
+
+        // then
+        log.info("ledger : success={}, soldOut={}, {} orders/s",
+                ledger.success.get(), ledger.soldOut.get(), Math.round(ledger.ordersPerSecond()));
+        log.info("entity : success={}, soldOut={}, failed={}, {} orders/s",
+                entity.success.get(), entity.soldOut.get(), entity.failed.get(), Math.round(entity.ordersPerSecond()));
+        log.info("atomic : success={}, soldOut={}, {} orders/s",
+                result.success.get(), result.soldOut.get(), Math.round(result.ordersPerSecond()));
+        assertEquals(STOCK, ledger.success.get());
+        assertEquals(STOCK, result.success.get());
+        assertTrue(entity.success.get() >= STOCK);
+    }
+
+    @Test
+    public void 롤백시_예약_복구() throws Exception {
+        // given
+        Member member = createMember();
+        Item item = createBook(10);
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> {
+            orderService.order(member.getId(), item.getId(), 3);
+            status.setRollbackOnly();
+        });
+
+        // then
+        assertEquals(10, stockLedger.getStock(item.getId()));
+        assertEquals(0, journalCount(item));
+    }
+
+    @Test
+    public void 주문취소_재고복구() throws Exception {
+        // given
+        Member member = createMember();
+        Item item = createBook(10);
+        Long orderId = orderService.order(member.getId(), item.getId(), 3);
+
+        // when
+        orderService.cancelOrder(orderId);
+        stockLedger.flushAll();
+
+        // then
+        assertEquals(10, stockLedger.getStock(item.getId()));
+        assertEquals(10, itemService.findOne(item.getId()).getStockQuantity());
+    }
+
+    @Test
+    public void 관리자_재고_수정_후_주문() throws Exception {
+        // given (반영되지 않은 주문 기록이 남아 있는 상태)
+        Member member = createMember();
+        Item item = createBook(10);
+        orderService.order(member.getId(), item.getId(), 3);
+
+        // when
+        itemService.updateItem(item.getId(), "타임세일 JPA", 10000, 20);
+        orderService.order(member.getId(), item.getId(), 5);
+        stockLedger.flushAll();
+
+        // then
+        assertEquals(15, stockLedger.getStock(item.getId()));
+        assertEquals(15, itemService.findOne(item.getId()).getStockQuantity());
+    }
+
+    /**
+     * 관리자 수정 트랜잭션이 상품을 읽은 뒤 수정하기 전에 반영(flush)이 끝난 상황
+     * 수정 update가 읽어둔 재고로 반영된 재고를 덮어쓰면 이미 지운 기록만큼 재고가 사라진다.
+     */
+    @Test
+    public void 관리자_수정중_반영되어도_재고_유지() throws Exception {
+        // given (반영되지 않은 주문 기록이 남아 있는 상태)
+        Member member = createMember();
+        Item item = createBook(10);
+        orderService.order(member.getId(), item.getId(), 3);
+
+        // when (재고는 그대로 두고 이름, 가격만 바꾼다)
+        transactionTemplate.executeWithoutResult(status -> {
+            itemRepository.findOne(item.getId());
+            CompletableFuture.runAsync(() -> stockLedger.flushAll()).join();
+            itemService.updateItem(item.getId(), "타임세일 JPA", 9000, 7);
+        });
+
+        // then
+        assertEquals(7, stockLedger.getStock(item.getId()));
+        assertEquals(7, itemRepository.findStockQuantity(item.getId()));
+        assertEquals("타임세일 JPA", itemService.findOne(item.getId()).getName());
+        assertEquals(0, journalCount(item));
+    }
+
+    @Test
+    public void 관리자_재고_감소_후_초과주문_거절() throws Exception {
+        // given
+        Member member = createMember();
+        Item item = createBook(10);
+
+        // when
+        itemService.updateItem(item.getId(), "타임세일 JPA", 10000, 2);
+
+        // then
+        assertThrows(NotEnoughStockException.class, () -> orderService.order(member.getId(), item.getId(), 3));
+        orderService.order(member.getId(), item.getId(), 2);
+        stockLedger.flushAll();
+        assertEquals(0, stockLedger.getStock(item.getId()));
+        assertEquals(0, itemService.findOne(item.getId()).getStockQuantity());
+    }
+
+    /**
+     * 주문 트랜잭션이 Item을 읽은 뒤, 카운터를 채우기 전에 다른 쓰레드의 반영(flush)이 끝난 상황
+     */
+    @Test
+    public void 카운터는_반영된_최신_재고로_채움() throws Exception {
+        // given
+        Item item = createBook(10);
+
+        // when
+        long stock = transactionTemplate.execute(status -> {
+            itemRepository.findOne(item.getId());
+            CompletableFuture.runAsync(() -> {
+                transactionTemplate.executeWithoutResult(s -> stockJournalRepository.save(new StockJournal(item.getId(), -3)));
+                stockLedger.flushAll();
+            }).join();
+            return stockLedger.getStock(item.getId());
+        });
+
+        // then
+        assertEquals(7, stock);
+    }
+
+    /**
+     * 서버가 죽어 메모리 카운터는 사라지고 커밋된 기록만 남은 상황
+     */
+    @Test
+    public void 재시작시_기록_반영() throws Exception {
+        // given
+        Item item = createBook(10);
+        transactionTemplate.executeWithoutResult(status -> {
+            stockJournalRepository.save(new StockJournal(item.getId(), -3));
+            stockJournalRepository.save(new StockJournal(item.getId(), -2));
+        });
+
+        // when
+        stockLedger.reconcile();
+
+        // then
+        assertEquals(5, itemService.findOne(item.getId()).getStockQuantity());
+        assertEquals(0, journalCount(item));
+        assertEquals(5, stockLedger.getStock(item.getId()));
+        assertEquals(0, stockLedger.pendingJournals());
+    }
+
+    private long journalCount(Item item) {
+        return em.createQuery("select count(j) from StockJournal j where j.itemId = :itemId", Long.class)
+                .setParameter("itemId", item.getId())
+                .getSingleResult();
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("장부회원-" + UUID.randomUUID());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        memberService.join(member);
+        return member;
+    }
+
+    private Item createBook(int stockQuantity) {
+        Book book = new Book();
+        book.setName("타임세일 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+}
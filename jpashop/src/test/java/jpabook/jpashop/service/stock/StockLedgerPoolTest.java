@@ -0,0 +1,101 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.service.ItemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 커넥션 풀이 가득 찬 상태에서 카운터 채우기와 반영(flush)이 서로 기다리지 않는지 확인
+ */
+@SpringBootTest(properties = {
+        "jpashop.stock.mode=ledger",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=1000"
+})
+class StockLedgerPoolTest {
+
+    private static final int POOL_SIZE = 2;
+
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    StockLedger stockLedger;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    /**
+     * 주문 트랜잭션들이 커넥션을 모두 잡은 뒤 반영이 시작되고, 그 다음에 처음 쓰는 상품의 카운터를 채우는 상황
+     * 카운터 채우기가 반영을 기다리면 반영은 커넥션을 얻지 못해 실패한다.
+     */
+    @Test
+    public void 풀이_가득_차도_카운터_채우기와_반영이_함께_진행() throws Exception {
+        // given (쿼리 첫 파싱이 느리므로 미리 한 번 채워둔다)
+        stockLedger.getStock(createBook(10));
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < POOL_SIZE; i++) {
+            itemIds.add(createBook(10));
+        }
+        CountDownLatch connectionsHeld = new CountDownLatch(POOL_SIZE);
+        CountDownLatch flushStarted = new CountDownLatch(1);
+
+        // when
+        List<CompletableFuture<Long>> loads = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            loads.add(CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+                itemRepository.findStockQuantity(itemId);
+                connectionsHeld.countDown();
+                awaitQuietly(flushStarted);
+                sleepQuietly(200);
+                return stockLedger.getStock(itemId);
+            })));
+        }
+        assertTrue(connectionsHeld.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Integer> flush = CompletableFuture.supplyAsync(stockLedger::flushAll);
+        flushStarted.countDown();
+
+        // then
+        for (CompletableFuture<Long> load : loads) {
+            assertEquals(10L, load.get(10, TimeUnit.SECONDS));
+        }
+        assertDoesNotThrow(() -> flush.get(10, TimeUnit.SECONDS));
+    }
+
+    private Long createBook(int stockQuantity) {
+        Book book = new Book();
+        book.setName("타임세일 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 상품 하나에 여러 쓰레드가 동시에 주문을 넣는 부하 테스트 도구
+ */
+class StockLoad {
+
+    final AtomicInteger success = new AtomicInteger();
+    final AtomicInteger soldOut = new AtomicInteger();
+    final AtomicInteger failed = new AtomicInteger();
+    long elapsedNanos;
+
+    static StockLoad hammer(int threadCount, int attempts, Runnable order) throws InterruptedException {
+        StockLoad result = new StockLoad();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(attempts);
+
+        for (int i = 0; i < attempts; i++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    order.run();
+                    result.success.incrementAndGet();
+                } catch (NotEnoughStockException e) {
+                    result.soldOut.incrementAndGet();
+                } catch (Exception e) {
+                    result.failed.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        done.await(1, TimeUnit.MINUTES);
+        result.elapsedNanos = System.nanoTime() - startTime;
+        executor.shutdown();
+        return result;
+    }
+
+    /**
+     * 품절로 거절된 요청도 처리한 요청으로 센다.
+     */
+    double ordersPerSecond() {
+        return (success.get() + soldOut.get()) / (elapsedNanos / 1e9);
+    }
+}
@@ -0,0 +1,56 @@
+package jpabook.jpashop.service.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedStockCounterTest {
+
+    @Test
+    public void 칸_하나보다_큰_수량_예약() throws Exception {
+        // given
+        StripedStockCounter counter = new StripedStockCounter(10, 4);
+
+        // when
+        boolean reserved = counter.tryReserve(9);
+
+        // then
+        assertTrue(reserved);
+        assertEquals(1, counter.sum());
+        assertFalse(counter.tryReserve(2));
+        assertEquals(1, counter.sum());
+    }
+
+    @Test
+    public void 동시_예약_초과_없음() throws Exception {
+        // given
+        StripedStockCounter counter = new StripedStockCounter(1000, 4);
+        AtomicInteger success = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        // when
+        for (int i = 0; i < 3000; i++) {
+            int quantity = i % 3 + 1;
+            executor.submit(() -> {
+                if (counter.tryReserve(quantity)) {
+                    success.addAndGet(quantity);
+                    if (quantity == 3) {
+                        counter.release(1);
+                        success.addAndGet(-1);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        // then
+        assertEquals(1000, success.get() + counter.sum());
+        assertTrue(counter.sum() < 3);
+    }
+}
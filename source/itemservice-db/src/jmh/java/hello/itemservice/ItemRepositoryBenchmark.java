@@ -0,0 +1,136 @@
+package hello.itemservice;
+
+import hello.itemservice.config.*;
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ItemRepository 구현체별 save/update/findById/findAll 처리량(Throughput)과 지연시간(SampleTime)
+ * 구현체마다 ItemServiceApplication 에서 @Import 하는 설정을 그대로 띄우고, 임베디드 H2 메모리 DB를 새로 만든다.
+ *
+ * ./gradlew jmh 실행 후 build/reports/jmh/results.json 에 결과가 남는다.
+ * 대상 구현체나 건수를 좁히려면 build.gradle 의 jmh 블록에 includes, benchmarkParameters 를 지정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ItemRepositoryBenchmark {
+
+    private static final Map<String, Class<?>> CONFIGS = Map.of(
+            "memory", MemoryConfig.class,
+            "columnar", ColumnarMemoryConfig.class,
+            "jdbcTemplateV1", JdbcTemplateV1Config.class,
+            "jdbcTemplateV2", JdbcTemplateV2Config.class,
+            "jdbcTemplateV3", JdbcTemplateV3Config.class,
+            "myBatis", MyBatisConfig.class,
+            "jpa", JpaConfig.class,
+            "springDataJpa", SpringDataJpaConfig.class,
+            "querydsl", QuerydslConfig.class
+    );
+
+    @Param({"memory", "columnar", "jdbcTemplateV1", "jdbcTemplateV2", "jdbcTemplateV3", "myBatis", "jpa", "springDataJpa", "querydsl"})
+    String backend;
+
+    @Param({"1000", "100000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    ItemRepository itemRepository;
+    long[] ids;
+    String[] itemNames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BenchmarkApplication.class, CONFIGS.get(backend))
+                .run("--spring.profiles.active=bench",
+                        "--spring.main.web-application-type=none",
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:" + backend + rows + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--logging.level.root=warn",
+                        "--logging.level.org.springframework.jdbc=warn",
+                        "--logging.level.org.hibernate.SQL=warn",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=warn",
+                        "--logging.level.hello.itemservice=warn");
+        itemRepository = context.getBean(ItemRepository.class);
+
+        ids = new long[rows];
+        itemNames = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            Item item = itemRepository.save(newItem());
+            ids[i] = item.getId();
+            itemNames[i] = item.getItemName();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        //MemoryItemRepository 는 저장소가 static 이라 다음 trial 로 넘어가지 않게 비운다
+        if (itemRepository instanceof MemoryItemRepository) {
+            ((MemoryItemRepository) itemRepository).clearStore();
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public Item save() {
+        return itemRepository.save(newItem());
+    }
+
+    @Benchmark
+    public void update() {
+        Item item = newItem();
+        itemRepository.update(randomId(), new ItemUpdateDto(item.getItemName(), item.getPrice(), item.getQuantity()));
+    }
+
+    @Benchmark
+    public Optional<Item> findById() {
+        return itemRepository.findById(randomId());
+    }
+
+    /**
+     * 저장된 상품명 중간의 4글자 + 가격 상한으로 검색
+     */
+    @Benchmark
+    public Object findAll() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String itemName = itemNames[random.nextInt(rows)];
+        int start = random.nextInt(itemName.length() - 3);
+        return itemRepository.findAll(new ItemSearchCond(itemName.substring(start, start + 4), random.nextInt(1, 100) * 1000));
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(rows)];
+    }
+
+    private static Item newItem() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] itemName = new char[10];
+        for (int i = 0; i < itemName.length; i++) {
+            itemName[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new Item(new String(itemName), random.nextInt(1, 100) * 1000, random.nextInt(1, 100));
+    }
+
+    /**
+     * ItemServiceApplication 과 달리 컴포넌트 스캔 없이 자동 설정 + 벤치마크 대상 설정만 띄운다
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    static class BenchmarkApplication {
+    }
+}
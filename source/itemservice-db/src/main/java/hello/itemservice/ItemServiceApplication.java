@@ -15,6 +15,7 @@ import javax.sql.DataSource;
 
 @Slf4j
 //@Import(MemoryConfig.class)
+//@Import(ColumnarMemoryConfig.class)
 //@Import(JdbcTemplateV1Config.class)
 //@Import(JdbcTemplateV2Config.class)
 //@Import(JdbcTemplateV3Config.class)
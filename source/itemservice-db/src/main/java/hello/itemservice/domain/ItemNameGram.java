@@ -0,0 +1,34 @@
+package hello.itemservice.domain;
+
+import lombok.Data;
+
+import javax.persistence.*;
+
+/**
+ * 상품명 3-gram 역색인 (ItemNameGrams 참고)
+ */
+@Data
+@Entity
+@Table(name = "item_name_gram", indexes = {
+        @Index(name = "idx_item_name_gram", columnList = "gram, item_id"),
+        @Index(name = "idx_item_name_gram_item", columnList = "item_id")
+})
+public class ItemNameGram {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 3)
+    private String gram;
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    public ItemNameGram() {
+    }
+
+    public ItemNameGram(String gram, Long itemId) {
+        this.gram = gram;
+        this.itemId = itemId;
+    }
+}
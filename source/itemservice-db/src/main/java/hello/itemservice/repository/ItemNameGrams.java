@@ -0,0 +1,50 @@
+package hello.itemservice.repository;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 상품명 부분 검색용 3-gram(trigram) 역색인
+ * like '%itemName%' 는 앞쪽이 와일드카드라 인덱스를 탈 수 없어서 상품이 많아지면 항상 테이블 전체를 읽는다.
+ * 상품을 저장할 때 상품명을 3글자 조각으로 쪼개 item_name_gram 테이블에 함께 저장해두고,
+ * 검색할 때는 검색어의 조각을 모두 가진 상품만 (gram, item_id) 인덱스로 먼저 추린 다음 like 로 다시 확인한다.
+ * 검색어가 3글자보다 짧으면 조각을 만들 수 없으므로 기존처럼 like 로만 검색한다.
+ * 검색어에 like 패턴 문자(%, _, \)가 있어도 글자 그대로 저장된 조각과 맞지 않으므로 like 로만 검색한다.
+ */
+public abstract class ItemNameGrams {
+
+    public static final int GRAM_SIZE = 3;
+
+    //like 와일드카드와 기본 이스케이프 문자
+    private static final String LIKE_SPECIAL_CHARS = "%_\\";
+
+    /**
+     * 중복을 제거한 3글자 조각 (검색 시 조각 개수로 having count(*) 를 비교하므로 중복이 있으면 안 된다)
+     */
+    public static Set<String> of(String text) {
+        if (text == null || text.length() < GRAM_SIZE) {
+            return Collections.emptySet();
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    /**
+     * like 검색어의 조각. 패턴 문자가 들어 있으면 역색인으로 추릴 수 없으므로 빈 Set 을 돌려준다.
+     */
+    public static Set<String> ofLikeTerm(String itemName) {
+        if (itemName == null) {
+            return Collections.emptySet();
+        }
+        for (int i = 0; i < itemName.length(); i++) {
+            if (LIKE_SPECIAL_CHARS.indexOf(itemName.charAt(i)) >= 0) {
+                return Collections.emptySet();
+            }
+        }
+        return of(itemName);
+    }
+}
@@ -1,6 +1,7 @@
 package hello.itemservice.repository.jdbctemplate;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemNameGrams;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
@@ -21,9 +22,11 @@ import javax.sql.DataSource;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * SimpleJdbcInsert
+ * 상품명 검색은 item_name_gram 역색인으로 후보를 먼저 추린다 (ItemNameGrams 참고)
  */
 @Slf4j
 public class JdbcTemplateItemRepositoryV3 implements ItemRepository {
@@ -44,6 +47,7 @@ public class JdbcTemplateItemRepositoryV3 implements ItemRepository {
         SqlParameterSource param = new BeanPropertySqlParameterSource(item);
         Number key = jdbcInsert.executeAndReturnKey(param);
         item.setId(key.longValue());
+        saveGrams(item.getId(), item.getItemName());
         return item;
     }
 
@@ -60,6 +64,24 @@ public class JdbcTemplateItemRepositoryV3 implements ItemRepository {
                 .addValue("id", itemId); //이 부분이 별도로 필요하다.
 
         template.update(sql, param);
+
+        template.update("delete from item_name_gram where item_id=:itemId", Map.of("itemId", itemId));
+        saveGrams(itemId, updateParam.getItemName());
+    }
+
+    private void saveGrams(Long itemId, String itemName) {
+        Set<String> grams = ItemNameGrams.of(itemName);
+        if (grams.isEmpty()) {
+            return;
+        }
+
+        String sql = "insert into item_name_gram(gram, item_id) values (:gram, :itemId)";
+        SqlParameterSource[] params = grams.stream()
+                .map(gram -> new MapSqlParameterSource()
+                        .addValue("gram", gram)
+                        .addValue("itemId", itemId))
+                .toArray(SqlParameterSource[]::new);
+        template.batchUpdate(sql, params);
     }
 
     @Override
@@ -79,7 +101,12 @@ public class JdbcTemplateItemRepositoryV3 implements ItemRepository {
         String itemName = cond.getItemName();
         Integer maxPrice = cond.getMaxPrice();
 
-        SqlParameterSource param = new BeanPropertySqlParameterSource(cond);
+        Set<String> grams = ItemNameGrams.ofLikeTerm(itemName);
+        MapSqlParameterSource param = new MapSqlParameterSource()
+                .addValue("itemName", itemName)
+                .addValue("maxPrice", maxPrice)
+                .addValue("grams", grams)
+                .addValue("gramCount", grams.size());
 
         String sql = "select id, item_name, price, quantity from item";
         //동적 쿼리
@@ -89,6 +116,11 @@ public class JdbcTemplateItemRepositoryV3 implements ItemRepository {
 
         boolean andFlag = false;
         if (StringUtils.hasText(itemName)) {
+            //역색인으로 후보를 추리고, 조각이 모두 있어도 이어져 있지 않을 수 있으므로 like 로 다시 확인
+            if (!grams.isEmpty()) {
+                sql += " id in (select item_id from item_name_gram where gram in (:grams)" +
+                        " group by item_id having count(*) = :gramCount) and";
+            }
             sql += " item_name like concat('%',:itemName,'%')";
             andFlag = true;
         }
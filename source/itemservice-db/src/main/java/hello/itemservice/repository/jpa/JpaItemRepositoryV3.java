@@ -3,9 +3,12 @@ package hello.itemservice.repository.jpa;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import hello.itemservice.domain.Item;
+import hello.itemservice.domain.ItemNameGram;
 import hello.itemservice.domain.QItem;
+import hello.itemservice.repository.ItemNameGrams;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
@@ -16,8 +19,10 @@ import org.springframework.util.StringUtils;
 import javax.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static hello.itemservice.domain.QItem.*;
+import static hello.itemservice.domain.QItemNameGram.*;
 
 @Repository
 @Transactional
@@ -34,6 +39,7 @@ public class JpaItemRepositoryV3 implements ItemRepository {
     @Override
     public Item save(Item item) {
         em.persist(item);
+        saveGrams(item.getId(), item.getItemName());
         return item;
     }
 
@@ -43,6 +49,17 @@ public class JpaItemRepositoryV3 implements ItemRepository {
         findItem.setItemName(updateParam.getItemName());
         findItem.setPrice(updateParam.getPrice());
         findItem.setQuantity(updateParam.getQuantity());
+
+        query.delete(itemNameGram)
+                .where(itemNameGram.itemId.eq(itemId))
+                .execute();
+        saveGrams(itemId, updateParam.getItemName());
+    }
+
+    private void saveGrams(Long itemId, String itemName) {
+        for (String gram : ItemNameGrams.of(itemName)) {
+            em.persist(new ItemNameGram(gram, itemId));
+        }
     }
 
     @Override
@@ -87,11 +104,26 @@ public class JpaItemRepositoryV3 implements ItemRepository {
                 .fetch();
     }
 
+    /**
+     * item_name_gram 역색인으로 후보를 먼저 추리고 like 로 다시 확인한다 (ItemNameGrams 참고)
+     */
     private BooleanExpression likeItemName(String itemName) {
-        if (StringUtils.hasText(itemName)) {
-            return item.itemName.like("%" + itemName + "%");
+        if (!StringUtils.hasText(itemName)) {
+            return null;
         }
-        return null;
+        BooleanExpression like = item.itemName.like("%" + itemName + "%");
+        Set<String> grams = ItemNameGrams.ofLikeTerm(itemName);
+        if (grams.isEmpty()) {
+            return like;
+        }
+        return item.id.in(
+                JPAExpressions
+                        .select(itemNameGram.itemId)
+                        .from(itemNameGram)
+                        .where(itemNameGram.gram.in(grams))
+                        .groupBy(itemNameGram.itemId)
+                        .having(itemNameGram.count().eq((long) grams.size()))
+        ).and(like);
     }
 
     private BooleanExpression maxPrice(Integer maxPrice) {
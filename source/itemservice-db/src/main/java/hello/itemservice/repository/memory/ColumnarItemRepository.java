@@ -0,0 +1,150 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.springframework.util.ObjectUtils;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 컬럼 단위 메모리 저장소
+ * MemoryItemRepository 는 상품마다 Long 키, Item 객체, Integer 가격/수량을 따로 들고 있어 객체 헤더와 참조만으로 상품당 100바이트 가까이 쓴다.
+ * 여기서는 id 를 배열 위치(id - 1)로 쓰고 가격, 수량은 int[] 에, 상품명은 중복을 제거한 문자열 풀의 번호만 int[] 에 저장한다.
+ * Item 객체는 조회할 때만 만든다. 그래서 조회 결과를 고쳐도 저장소에는 반영되지 않고, 수정은 update 로만 한다.
+ * 문자열 풀은 줄어들지 않으므로 상품명이 계속 바뀌는 데이터에는 맞지 않는다.
+ */
+public class ColumnarItemRepository implements ItemRepository {
+
+    //null 가격, 수량, 상품명 표시
+    private static final int NULL = Integer.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int size;
+    private int[] prices = new int[1024];
+    private int[] quantities = new int[1024];
+    private int[] itemNames = new int[1024];
+
+    //상품명 -> 번호, 번호 -> 상품명
+    private final Map<String, Integer> namePool = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    @Override
+    public Item save(Item item) {
+        lock.writeLock().lock();
+        try {
+            if (size == prices.length) {
+                int capacity = size * 2;
+                prices = Arrays.copyOf(prices, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                itemNames = Arrays.copyOf(itemNames, capacity);
+            }
+            write(size, item.getItemName(), item.getPrice(), item.getQuantity());
+            item.setId((long) ++size);
+            return item;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void update(Long itemId, ItemUpdateDto updateParam) {
+        lock.writeLock().lock();
+        try {
+            int index = indexOf(itemId);
+            if (index < 0) {
+                throw new NoSuchElementException("No value present");
+            }
+            write(index, updateParam.getItemName(), updateParam.getPrice(), updateParam.getQuantity());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            int index = indexOf(id);
+            return index < 0 ? Optional.empty() : Optional.of(read(index));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 상품명 조건은 행마다 비교하지 않고, 문자열 풀에서 맞는 상품명 번호를 먼저 골라둔 다음 int 비교로 거른다
+     */
+    @Override
+    public List<Item> findAll(ItemSearchCond cond) {
+        String itemName = cond.getItemName();
+        Integer maxPrice = cond.getMaxPrice();
+
+        lock.readLock().lock();
+        try {
+            BitSet matchNames = null;
+            if (!ObjectUtils.isEmpty(itemName)) {
+                matchNames = new BitSet(names.size());
+                for (int i = 0; i < names.size(); i++) {
+                    if (names.get(i).contains(itemName)) {
+                        matchNames.set(i);
+                    }
+                }
+            }
+
+            List<Item> result = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (maxPrice != null && (prices[i] == NULL || prices[i] > maxPrice)) {
+                    continue;
+                }
+                if (matchNames != null && (itemNames[i] == NULL || !matchNames.get(itemNames[i]))) {
+                    continue;
+                }
+                result.add(read(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clearStore() {
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            namePool.clear();
+            names.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int indexOf(Long id) {
+        if (id == null || id < 1 || id > size) {
+            return -1;
+        }
+        return (int) (id - 1);
+    }
+
+    private void write(int index, String itemName, Integer price, Integer quantity) {
+        itemNames[index] = itemName == null ? NULL : namePool.computeIfAbsent(itemName, name -> {
+            names.add(name);
+            return names.size() - 1;
+        });
+        prices[index] = price == null ? NULL : price;
+        quantities[index] = quantity == null ? NULL : quantity;
+    }
+
+    private Item read(int index) {
+        Item item = new Item(
+                itemNames[index] == NULL ? null : names.get(itemNames[index]),
+                prices[index] == NULL ? null : prices[index],
+                quantities[index] == NULL ? null : quantities[index]);
+        item.setId((long) index + 1);
+        return item;
+    }
+}
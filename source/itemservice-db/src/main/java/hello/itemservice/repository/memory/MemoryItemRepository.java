@@ -1,6 +1,7 @@
 package hello.itemservice.repository.memory;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemNameGrams;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
@@ -8,27 +9,62 @@ import org.springframework.stereotype.Repository;
 import org.springframework.util.ObjectUtils;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * 동시에 호출해도 안전한 메모리 저장소
+ * - 가격 색인: maxPrice 이하 범위 검색
+ * - 상품명 3-gram 색인: 상품명 부분 검색 (ItemNameGrams 참고)
+ * 색인은 후보를 추리는 용도이고, 최종 결과는 저장소의 현재 상품으로 조건을 다시 확인한다.
+ * 그래서 수정 중인 상품이 색인에 잠깐 두 번 들어 있거나 빠져 있어도 잘못된 상품이 조회되지는 않는다.
+ */
 @Repository
 public class MemoryItemRepository implements ItemRepository {
 
-    private static final Map<Long, Item> store = new HashMap<>(); //static
-    private static long sequence = 0L; //static
+    private static final Map<Long, Item> store = new ConcurrentHashMap<>(); //static
+    private static final AtomicLong sequence = new AtomicLong(); //static
+
+    //색인에서 상품이 빠져 비게 된 Set 은 지우지 않는다 (지우는 쪽과 추가하는 쪽이 경합하지 않도록)
+    private static final ConcurrentNavigableMap<Integer, Set<Long>> priceIndex = new ConcurrentSkipListMap<>();
+    private static final Map<String, Set<Long>> nameIndex = new ConcurrentHashMap<>();
+
+    //같은 상품의 수정과 색인 갱신을 묶는 락, 상품 id 로 나눠 잡으므로 서로 다른 상품은 동시에 수정할 수 있다
+    private static final Object[] locks = new Object[64];
+
+    static {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
 
     @Override
     public Item save(Item item) {
-        item.setId(++sequence);
-        store.put(item.getId(), item);
+        long id = sequence.incrementAndGet();
+        item.setId(id);
+        synchronized (lock(id)) {
+            store.put(id, item);
+            index(id, null, item);
+        }
         return item;
     }
 
+    /**
+     * 저장된 상품을 직접 바꾸지 않고 새 상품으로 교체한다 (조회 중인 스레드가 반쯤 바뀐 상품을 보지 않도록)
+     */
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
-        Item findItem = findById(itemId).orElseThrow();
-        findItem.setItemName(updateParam.getItemName());
-        findItem.setPrice(updateParam.getPrice());
-        findItem.setQuantity(updateParam.getQuantity());
+        synchronized (lock(itemId)) {
+            Item findItem = findById(itemId).orElseThrow();
+            Item updateItem = new Item(updateParam.getItemName(), updateParam.getPrice(), updateParam.getQuantity());
+            updateItem.setId(itemId);
+            store.put(itemId, updateItem);
+            index(itemId, findItem, updateItem);
+        }
     }
 
     @Override
@@ -40,23 +76,79 @@ public class MemoryItemRepository implements ItemRepository {
     public List<Item> findAll(ItemSearchCond cond) {
         String itemName = cond.getItemName();
         Integer maxPrice = cond.getMaxPrice();
-        return store.values().stream()
+        return candidates(itemName, maxPrice)
                 .filter(item -> {
                     if (ObjectUtils.isEmpty(itemName)) {
                         return true;
                     }
-                    return item.getItemName().contains(itemName);
+                    return item.getItemName() != null && item.getItemName().contains(itemName);
                 }).filter(item -> {
                     if (maxPrice == null) {
                         return true;
                     }
-                    return item.getPrice() <= maxPrice;
+                    return item.getPrice() != null && item.getPrice() <= maxPrice;
                 })
+                .sorted(Comparator.comparing(Item::getId))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 상품명 3-gram 중 상품이 가장 적은 조각, 없으면 가격 범위, 둘 다 없으면 전체
+     */
+    private Stream<Item> candidates(String itemName, Integer maxPrice) {
+        Set<String> grams = ItemNameGrams.of(itemName);
+        if (!grams.isEmpty()) {
+            return grams.stream()
+                    .map(gram -> nameIndex.getOrDefault(gram, Collections.emptySet()))
+                    .min(Comparator.comparingInt(Set::size))
+                    .orElseThrow()
+                    .stream()
+                    .map(store::get)
+                    .filter(Objects::nonNull);
+        }
+        if (maxPrice != null) {
+            return priceIndex.headMap(maxPrice, true).values().stream()
+                    .flatMap(Set::stream)
+                    .distinct()
+                    .map(store::get)
+                    .filter(Objects::nonNull);
+        }
+        return store.values().stream();
+    }
+
+    /**
+     * 새 값을 먼저 색인에 넣고 더는 해당하지 않는 옛 값을 뺀다
+     */
+    private void index(Long id, Item oldItem, Item newItem) {
+        Set<String> newGrams = ItemNameGrams.of(newItem.getItemName());
+        for (String gram : newGrams) {
+            nameIndex.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        if (newItem.getPrice() != null) {
+            priceIndex.computeIfAbsent(newItem.getPrice(), key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+
+        if (oldItem == null) {
+            return;
+        }
+        for (String gram : ItemNameGrams.of(oldItem.getItemName())) {
+            if (!newGrams.contains(gram)) {
+                nameIndex.getOrDefault(gram, Collections.emptySet()).remove(id);
+            }
+        }
+        if (oldItem.getPrice() != null && !oldItem.getPrice().equals(newItem.getPrice())) {
+            priceIndex.getOrDefault(oldItem.getPrice(), Collections.emptySet()).remove(id);
+        }
+    }
+
+    private static Object lock(long id) {
+        return locks[(int) (id & (locks.length - 1))];
+    }
+
     public void clearStore() {
         store.clear();
+        priceIndex.clear();
+        nameIndex.clear();
     }
 
 }
@@ -7,6 +7,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,7 +18,11 @@ public interface ItemMapper {
 
     void update(@Param("id") Long id, @Param("updateParam") ItemUpdateDto updateParam);
 
+    void saveGrams(@Param("itemId") Long itemId, @Param("grams") Collection<String> grams);
+
+    void deleteGrams(Long itemId);
+
     Optional<Item> findById(Long id);
 
-    List<Item> findAll(ItemSearchCond itemSearch);
+    List<Item> findAll(@Param("cond") ItemSearchCond itemSearch, @Param("grams") Collection<String> grams);
 }
@@ -1,6 +1,7 @@
 package hello.itemservice.repository.mybatis;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemNameGrams;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Repository
@@ -22,12 +24,22 @@ public class MyBatisItemRepository implements ItemRepository {
     public Item save(Item item) {
         log.info("itemMapper class={}", itemMapper.getClass());
         itemMapper.save(item);
+        saveGrams(item.getId(), item.getItemName());
         return item;
     }
 
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
         itemMapper.update(itemId, updateParam);
+        itemMapper.deleteGrams(itemId);
+        saveGrams(itemId, updateParam.getItemName());
+    }
+
+    private void saveGrams(Long itemId, String itemName) {
+        Set<String> grams = ItemNameGrams.of(itemName);
+        if (!grams.isEmpty()) {
+            itemMapper.saveGrams(itemId, grams);
+        }
     }
 
     @Override
@@ -37,6 +49,6 @@ public class MyBatisItemRepository implements ItemRepository {
 
     @Override
     public List<Item> findAll(ItemSearchCond cond) {
-        return itemMapper.findAll(cond);
+        return itemMapper.findAll(cond, ItemNameGrams.ofLikeTerm(cond.getItemName()));
     }
 }
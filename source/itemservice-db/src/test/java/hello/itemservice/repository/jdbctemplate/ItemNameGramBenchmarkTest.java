@@ -0,0 +1,108 @@
+package hello.itemservice.repository.jdbctemplate;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemNameGrams;
+import hello.itemservice.repository.ItemSearchCond;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 상품명 부분 검색: like '%itemName%' 전체 스캔 vs item_name_gram 역색인
+ * 100만 건을 적재하므로 기본 빌드에서는 돌지 않는다.
+ * ITEM_BENCHMARK=true ./gradlew test --tests "*ItemNameGramBenchmarkTest"
+ */
+@Slf4j
+@EnabledIfEnvironmentVariable(named = "ITEM_BENCHMARK", matches = "true")
+class ItemNameGramBenchmarkTest {
+
+    static final int ITEM_COUNT = 1_000_000;
+    static final int BATCH_SIZE = 10_000;
+    static final int SEARCH_COUNT = 20;
+
+    final Random random = new Random(1);
+
+    @Test
+    void likeVsGram() {
+        //given
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:gram;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<String> itemNames = load(jdbcTemplate);
+
+        JdbcTemplateItemRepositoryV3 repository = new JdbcTemplateItemRepositoryV3(dataSource);
+        List<String> keywords = new ArrayList<>();
+        for (int i = 0; i < SEARCH_COUNT; i++) {
+            String itemName = itemNames.get(random.nextInt(itemNames.size()));
+            int start = random.nextInt(itemName.length() - 4);
+            keywords.add(itemName.substring(start, start + 4));
+        }
+
+        //when
+        long likeNanos = 0;
+        long gramNanos = 0;
+        for (String keyword : keywords) {
+            long start = System.nanoTime();
+            List<Item> likeResult = jdbcTemplate.query(
+                    "select id, item_name, price, quantity from item where item_name like concat('%', ?, '%')",
+                    BeanPropertyRowMapper.newInstance(Item.class), keyword);
+            likeNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<Item> gramResult = repository.findAll(new ItemSearchCond(keyword, null));
+            gramNanos += System.nanoTime() - start;
+
+            //then
+            assertThat(gramResult).containsExactlyInAnyOrderElementsOf(likeResult);
+        }
+
+        log.info("items={}, searches={}, like={}ms/search, gram={}ms/search",
+                ITEM_COUNT, SEARCH_COUNT,
+                likeNanos / SEARCH_COUNT / 1_000_000.0, gramNanos / SEARCH_COUNT / 1_000_000.0);
+    }
+
+    private List<String> load(JdbcTemplate jdbcTemplate) {
+        List<String> itemNames = new ArrayList<>(ITEM_COUNT);
+        List<Object[]> items = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> grams = new ArrayList<>();
+        for (long id = 1; id <= ITEM_COUNT; id++) {
+            String itemName = randomName();
+            itemNames.add(itemName);
+            items.add(new Object[]{id, itemName, 10000, 10});
+            for (String gram : ItemNameGrams.of(itemName)) {
+                grams.add(new Object[]{gram, id});
+            }
+            if (items.size() == BATCH_SIZE) {
+                flush(jdbcTemplate, items, grams);
+            }
+        }
+        flush(jdbcTemplate, items, grams);
+        return itemNames;
+    }
+
+    private void flush(JdbcTemplate jdbcTemplate, List<Object[]> items, List<Object[]> grams) {
+        jdbcTemplate.batchUpdate("insert into item(id, item_name, price, quantity) values (?, ?, ?, ?)", items);
+        jdbcTemplate.batchUpdate("insert into item_name_gram(gram, item_id) values (?, ?)", grams);
+        items.clear();
+        grams.clear();
+    }
+
+    private String randomName() {
+        char[] name = new char[10];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(name);
+    }
+}
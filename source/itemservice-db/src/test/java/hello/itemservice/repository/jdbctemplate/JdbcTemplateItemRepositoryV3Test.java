@@ -0,0 +1,62 @@
+package hello.itemservice.repository.jdbctemplate;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemNameGrams;
+import hello.itemservice.repository.ItemSearchCond;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 역색인(item_name_gram)을 쓰는 상품명 검색이 기존 like '%itemName%' 와 같은 결과를 내는지 확인
+ */
+class JdbcTemplateItemRepositoryV3Test {
+
+    JdbcTemplateItemRepositoryV3 repository;
+
+    @BeforeEach
+    void beforeEach() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:likeTerm;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        repository = new JdbcTemplateItemRepositoryV3(dataSource);
+
+        repository.save(new Item("itemA-1", 10000, 10));
+        repository.save(new Item("itemA-2", 20000, 20));
+        repository.save(new Item("itemB-1", 30000, 30));
+    }
+
+    @Test
+    void findByGrams() {
+        //then
+        assertThat(ItemNameGrams.ofLikeTerm("itemA")).isNotEmpty();
+        assertThat(itemNames("itemA")).containsExactlyInAnyOrder("itemA-1", "itemA-2");
+        assertThat(itemNames("mA-2")).containsExactlyInAnyOrder("itemA-2");
+    }
+
+    @Test
+    void percentIsLikeWildcard() {
+        //then
+        assertThat(ItemNameGrams.ofLikeTerm("item%1")).isEmpty();
+        assertThat(itemNames("item%1")).containsExactlyInAnyOrder("itemA-1", "itemB-1");
+    }
+
+    @Test
+    void underscoreIsLikeWildcard() {
+        //then
+        assertThat(ItemNameGrams.ofLikeTerm("item_-1")).isEmpty();
+        assertThat(itemNames("item_-1")).containsExactlyInAnyOrder("itemA-1", "itemB-1");
+    }
+
+    private List<String> itemNames(String itemName) {
+        return repository.findAll(new ItemSearchCond(itemName, null)).stream()
+                .map(Item::getItemName)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,72 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 100만 건 적재 후 힙 사용량 비교: 평범한 HashMap<Long, Item> 저장소(기준) vs ColumnarItemRepository
+ * MemoryItemRepository 는 가격, 상품명 색인까지 들고 있어 기준으로 쓰면 차이가 부풀려지므로 비교하지 않는다.
+ * 상품명은 모두 다르게 넣는다. (같은 상품명이 많으면 컬럼 저장소의 문자열 풀만 유리해진다)
+ * 힙 크기에 따라 결과가 흔들리므로 기본 빌드에서는 돌지 않는다.
+ * ITEM_BENCHMARK=true ./gradlew test --tests "*ItemStoreFootprintTest"
+ */
+@Slf4j
+@EnabledIfEnvironmentVariable(named = "ITEM_BENCHMARK", matches = "true")
+class ItemStoreFootprintTest {
+
+    static final int ITEM_COUNT = 1_000_000;
+
+    @Test
+    void footprint() {
+        long hashMapBytes = measure(() -> {
+            Map<Long, Item> store = new HashMap<>();
+            for (int i = 0; i < ITEM_COUNT; i++) {
+                Item item = createItem(i);
+                item.setId((long) i + 1);
+                store.put(item.getId(), item);
+            }
+            return store;
+        });
+
+        long columnarBytes = measure(() -> {
+            ColumnarItemRepository itemRepository = new ColumnarItemRepository();
+            for (int i = 0; i < ITEM_COUNT; i++) {
+                itemRepository.save(createItem(i));
+            }
+            return itemRepository;
+        });
+
+        log.info("items={}, hashMap={} bytes/item, columnar={} bytes/item",
+                ITEM_COUNT, hashMapBytes / ITEM_COUNT, columnarBytes / ITEM_COUNT);
+        assertThat(columnarBytes).isLessThan(hashMapBytes);
+    }
+
+    private Item createItem(int i) {
+        return new Item("item" + i, i % 100_000, i % 100);
+    }
+
+    private long measure(Supplier<Object> loader) {
+        long before = usedMemory();
+        Object store = loader.get();
+        long after = usedMemory();
+        //측정이 끝날 때까지 저장소가 수거되지 않도록 사용
+        assertThat(store).isNotNull();
+        return after - before;
+    }
+
+    private long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
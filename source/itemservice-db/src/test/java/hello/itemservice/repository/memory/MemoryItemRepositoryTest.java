@@ -0,0 +1,69 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemoryItemRepositoryTest {
+
+    MemoryItemRepository itemRepository = new MemoryItemRepository();
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.clearStore();
+    }
+
+    @Test
+    void concurrentSave() throws Exception {
+        //given
+        int threadCount = 16;
+        int saveCount = 1000;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        //when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            futures.add(executorService.submit(() -> {
+                for (int j = 0; j < saveCount; j++) {
+                    itemRepository.save(new Item("item" + j, j, 1));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+
+        //then
+        List<Item> result = itemRepository.findAll(new ItemSearchCond());
+        assertThat(result).hasSize(threadCount * saveCount);
+        assertThat(result).extracting(Item::getId).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void updateReindex() {
+        //given
+        Item item1 = itemRepository.save(new Item("itemA-1", 10000, 10));
+        Item item2 = itemRepository.save(new Item("itemA-2", 20000, 20));
+
+        //when
+        itemRepository.update(item1.getId(), new ItemUpdateDto("itemB-1", 30000, 30));
+
+        //then
+        Item updateItem = itemRepository.findById(item1.getId()).get();
+        assertThat(itemRepository.findAll(new ItemSearchCond("itemA", null))).containsExactly(item2);
+        assertThat(itemRepository.findAll(new ItemSearchCond("itemB", null))).containsExactly(updateItem);
+        assertThat(itemRepository.findAll(new ItemSearchCond(null, 10000))).isEmpty();
+        assertThat(itemRepository.findAll(new ItemSearchCond(null, 30000))).containsExactly(item2, updateItem);
+    }
+}
@@ -1,3 +1,4 @@
+drop table if exists item_name_gram CASCADE;
 drop table if exists item CASCADE;
 create table item
 (
@@ -6,4 +7,14 @@ create table item
     price     integer,
     quantity  integer,
     primary key (id)
-);
\ No newline at end of file
+);
+
+create table item_name_gram
+(
+    id      bigint generated by default as identity,
+    gram    varchar(3),
+    item_id bigint,
+    primary key (id)
+);
+create index idx_item_name_gram on item_name_gram (gram, item_id);
+create index idx_item_name_gram_item on item_name_gram (item_id);